@@ -0,0 +1,92 @@
+package com.example.demo.config;
+
+import com.example.demo.dto.Web3Operation;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "messaging")
+public class MessagingConfig {
+    // How long a caller waits for the consumer's reply before failing
+    private long replyTimeoutMillis = 30000;
+    // Format written for operations; both are always readable. Switch to BINARY once every node reads it
+    private PayloadCodec codec = PayloadCodec.JSON;
+    private Dispatch dispatch = new Dispatch();
+    private Batch batch = new Batch();
+    private Publish publish = new Publish();
+    private Lanes lanes = new Lanes();
+
+    public enum PayloadCodec {
+        JSON,
+        BINARY
+    }
+
+    public enum DispatchMode {
+        // Run in the calling thread
+        LOCAL,
+        // Publish to RabbitMQ and wait for the reply
+        BROKER,
+        // Local for cheap, usually cached reads, broker for the rest
+        HYBRID
+    }
+
+    @Data
+    public static class Dispatch {
+        private DispatchMode mode = DispatchMode.HYBRID;
+        // Per operation type, takes precedence over mode
+        private Map<Web3Operation.OperationType, DispatchMode> operations = new EnumMap<>(Web3Operation.OperationType.class);
+    }
+
+    @Data
+    public static class Batch {
+        // Replaces the per-message web3 consumer with a batch listener
+        private boolean enabled = false;
+        private int size = 100;
+        // A partial batch is delivered after this long without a new message
+        private long receiveTimeoutMillis = 20;
+        // Batch consumers per lane queue
+        private int concurrency = 2;
+        // Operations of a batch run concurrently so their RPCs share JSON-RPC batches
+        private int parallelism = 32;
+    }
+
+    @Data
+    public static class Publish {
+        // Published and still awaiting the reply; each holds a channel, keep below the broker's channel_max (2047)
+        private int maxInFlight = 1000;
+        private long acquireTimeoutMillis = 1000;
+        private int threads = 2;
+        private int queueSize = 10000;
+    }
+
+    @Data
+    public static class Lanes {
+        private Lane light = new Lane(8, 16, 250);
+        private Lane standard = new Lane(4, 8, 50);
+        private Lane heavy = new Lane(2, 4, 5);
+
+        public Lane get(Web3Operation.CostClass costClass) {
+            return switch (costClass) {
+                case LIGHT -> light;
+                case STANDARD -> standard;
+                case HEAVY -> heavy;
+            };
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Lane {
+        private int concurrency = 1;
+        private int maxConcurrency = 1;
+        private int prefetch = 10;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.demo.config;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.SmartMessageConverter;
+
+/**
+ * Picks the payload format by content type. Operations are written with
+ * {@link OperationCodec} when binary encoding is on, everything else, replies
+ * included, stays JSON. Reading follows the incoming content type, so nodes
+ * writing either format can share a queue during a rollout.
+ */
+public class NegotiatingMessageConverter implements SmartMessageConverter {
+
+    private final SmartMessageConverter json;
+    private final boolean writeBinary;
+
+    public NegotiatingMessageConverter(SmartMessageConverter json, boolean writeBinary) {
+        this.json = json;
+        this.writeBinary = writeBinary;
+    }
+
+    @Override
+    public Message toMessage(Object object, MessageProperties messageProperties) {
+        if (writeBinary && OperationCodec.supports(object.getClass())) {
+            messageProperties.setContentType(OperationCodec.CONTENT_TYPE);
+            byte[] body = OperationCodec.encode(object);
+            messageProperties.setContentLength(body.length);
+            return new Message(body, messageProperties);
+        }
+        return json.toMessage(object, messageProperties);
+    }
+
+    @Override
+    public Object fromMessage(Message message) {
+        return fromMessage(message, null);
+    }
+
+    @Override
+    public Object fromMessage(Message message, Object conversionHint) {
+        if (OperationCodec.CONTENT_TYPE.equals(message.getMessageProperties().getContentType())) {
+            try {
+                return OperationCodec.decode(message.getBody());
+            } catch (RuntimeException e) {
+                throw new MessageConversionException("Failed to decode operation", e);
+            }
+        }
+        return json.fromMessage(message, conversionHint);
+    }
+}
@@ -0,0 +1,281 @@
+package com.example.demo.config;
+
+import com.example.demo.dto.WalletOperation;
+import com.example.demo.dto.Web3Operation;
+import org.web3j.crypto.Keys;
+import org.web3j.utils.Numeric;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Compact binary form of {@link Web3Operation} and {@link WalletOperation}.
+ * A message starts with a magic byte, the schema version and the operation
+ * kind, followed by a presence bitmask and the present fields. The version
+ * byte holds a major and a minor number: a minor version may only append
+ * fields under new presence bits and enum constants at the end, so readers
+ * of the same major skip what they do not know. Anything else, such as
+ * reordering an enum whose ordinals are on the wire, needs a new major.
+ * Strings that are really addresses, hashes, UUIDs or block numbers are
+ * stored as raw bytes or varints and restored to the exact same text.
+ */
+public final class OperationCodec {
+
+    public static final String CONTENT_TYPE = "application/x-web3-operation";
+
+    private static final byte MAGIC = (byte) 0xB3;
+    private static final int MAJOR = 1;
+    private static final int MINOR = 1;
+    private static final byte KIND_WEB3 = 1;
+    private static final byte KIND_WALLET = 2;
+
+    // Tags of the string encodings
+    private static final int TEXT = 0;
+    private static final int ADDRESS_LOWER = 1;
+    private static final int ADDRESS_CHECKSUM = 2;
+    private static final int HASH = 3;
+    private static final int UUID_TEXT = 4;
+    private static final int NUMBER = 5;
+
+    private static final Pattern LOWER_ADDRESS = Pattern.compile("0x[0-9a-f]{40}");
+    private static final Pattern ANY_ADDRESS = Pattern.compile("0x[0-9a-fA-F]{40}");
+    private static final Pattern LOWER_HASH = Pattern.compile("0x[0-9a-f]{64}");
+    private static final Pattern DECIMAL = Pattern.compile("0|[1-9][0-9]{0,17}");
+
+    private OperationCodec() {
+    }
+
+    public static boolean supports(Class<?> type) {
+        return type == Web3Operation.class || type == WalletOperation.class;
+    }
+
+    public static byte[] encode(Object operation) {
+        Writer out = new Writer();
+        out.buffer.write(MAGIC);
+        out.buffer.write(MAJOR << 4 | MINOR);
+        if (operation instanceof Web3Operation web3) {
+            out.buffer.write(KIND_WEB3);
+            out.presence(web3.getId(), web3.getType(), web3.getAddress());
+            out.string(web3.getId());
+            out.ordinal(web3.getType());
+            out.string(web3.getAddress());
+        } else if (operation instanceof WalletOperation wallet) {
+            out.buffer.write(KIND_WALLET);
+            out.presence(wallet.getId(), wallet.getType(), wallet.getAddress(), wallet.getAmount(),
+                wallet.getToAddress(), wallet.getCursor(), wallet.getLimit(), wallet.getRequestedBy());
+            out.string(wallet.getId());
+            out.ordinal(wallet.getType());
+            out.string(wallet.getAddress());
+            out.decimal(wallet.getAmount());
+            out.string(wallet.getToAddress());
+            out.string(wallet.getCursor());
+            if (wallet.getLimit() != null) {
+                out.varint(zigzag(wallet.getLimit()));
+            }
+            // Added in 1.1
+            out.string(wallet.getRequestedBy());
+        } else {
+            throw new IllegalArgumentException("Cannot encode " + operation.getClass().getName());
+        }
+        return out.buffer.toByteArray();
+    }
+
+    public static Object decode(byte[] bytes) {
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        if (bytes.length < 3 || in.get() != MAGIC) {
+            throw new IllegalArgumentException("Not an encoded operation");
+        }
+        int version = in.get() & 0xFF;
+        if (version >> 4 != MAJOR) {
+            throw new IllegalArgumentException(
+                "Unsupported operation schema version " + (version >> 4) + "." + (version & 0x0F));
+        }
+        // Fields of a newer minor come after the known ones and are left unread
+        byte kind = in.get();
+        long presence = readVarint(in);
+        if (kind == KIND_WEB3) {
+            Web3Operation operation = new Web3Operation();
+            if (present(presence, 0)) {
+                operation.setId(readString(in));
+            }
+            if (present(presence, 1)) {
+                operation.setType(constant(Web3Operation.OperationType.values(), readVarint(in)));
+            }
+            if (present(presence, 2)) {
+                operation.setAddress(readString(in));
+            }
+            return operation;
+        }
+        if (kind == KIND_WALLET) {
+            WalletOperation operation = new WalletOperation();
+            if (present(presence, 0)) {
+                operation.setId(readString(in));
+            }
+            if (present(presence, 1)) {
+                operation.setType(constant(WalletOperation.OperationType.values(), readVarint(in)));
+            }
+            if (present(presence, 2)) {
+                operation.setAddress(readString(in));
+            }
+            if (present(presence, 3)) {
+                operation.setAmount(readDecimal(in));
+            }
+            if (present(presence, 4)) {
+                operation.setToAddress(readString(in));
+            }
+            if (present(presence, 5)) {
+                operation.setCursor(readString(in));
+            }
+            if (present(presence, 6)) {
+                operation.setLimit((int) unzigzag(readVarint(in)));
+            }
+            if (present(presence, 7)) {
+                operation.setRequestedBy(readString(in));
+            }
+            return operation;
+        }
+        throw new IllegalArgumentException("Unknown operation kind " + kind);
+    }
+
+    // A constant a newer minor appended is unknown here, the operation is rejected rather than misread
+    private static <E extends Enum<E>> E constant(E[] values, long ordinal) {
+        if (ordinal >= values.length) {
+            throw new IllegalArgumentException("Unknown " + values[0].getDeclaringClass().getSimpleName() + " " + ordinal);
+        }
+        return values[(int) ordinal];
+    }
+
+    private static boolean present(long presence, int field) {
+        return (presence & (1L << field)) != 0;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static long readVarint(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    private static byte[] readBytes(ByteBuffer in, int length) {
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return bytes;
+    }
+
+    private static String readString(ByteBuffer in) {
+        int tag = (int) readVarint(in);
+        return switch (tag) {
+            case TEXT -> new String(readBytes(in, (int) readVarint(in)), StandardCharsets.UTF_8);
+            case ADDRESS_LOWER -> "0x" + HexFormat.of().formatHex(readBytes(in, 20));
+            case ADDRESS_CHECKSUM -> Keys.toChecksumAddress(HexFormat.of().formatHex(readBytes(in, 20)));
+            case HASH -> "0x" + HexFormat.of().formatHex(readBytes(in, 32));
+            case UUID_TEXT -> new UUID(in.getLong(), in.getLong()).toString();
+            case NUMBER -> Long.toString(readVarint(in));
+            default -> throw new IllegalArgumentException("Unknown string tag " + tag);
+        };
+    }
+
+    private static BigDecimal readDecimal(ByteBuffer in) {
+        int scale = (int) unzigzag(readVarint(in));
+        return new BigDecimal(new BigInteger(readBytes(in, (int) readVarint(in))), scale);
+    }
+
+    private static final class Writer {
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream(64);
+
+        void presence(Object... fields) {
+            long bits = 0;
+            for (int i = 0; i < fields.length; i++) {
+                if (fields[i] != null) {
+                    bits |= 1L << i;
+                }
+            }
+            varint(bits);
+        }
+
+        void varint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                buffer.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.write((int) value);
+        }
+
+        void ordinal(Enum<?> value) {
+            if (value != null) {
+                varint(value.ordinal());
+            }
+        }
+
+        void decimal(BigDecimal value) {
+            if (value != null) {
+                varint(zigzag(value.scale()));
+                byte[] unscaled = value.unscaledValue().toByteArray();
+                varint(unscaled.length);
+                buffer.writeBytes(unscaled);
+            }
+        }
+
+        // Picks the smallest encoding that decodes back to exactly the same text
+        void string(String value) {
+            if (value == null) {
+                return;
+            }
+            if (LOWER_ADDRESS.matcher(value).matches()) {
+                varint(ADDRESS_LOWER);
+                buffer.writeBytes(Numeric.hexStringToByteArray(value));
+            } else if (ANY_ADDRESS.matcher(value).matches() && value.equals(Keys.toChecksumAddress(value))) {
+                varint(ADDRESS_CHECKSUM);
+                buffer.writeBytes(Numeric.hexStringToByteArray(value));
+            } else if (LOWER_HASH.matcher(value).matches()) {
+                varint(HASH);
+                buffer.writeBytes(Numeric.hexStringToByteArray(value));
+            } else if (DECIMAL.matcher(value).matches()) {
+                varint(NUMBER);
+                varint(Long.parseLong(value));
+            } else if (isCanonicalUuid(value)) {
+                UUID uuid = UUID.fromString(value);
+                varint(UUID_TEXT);
+                buffer.writeBytes(ByteBuffer.allocate(16)
+                    .putLong(uuid.getMostSignificantBits())
+                    .putLong(uuid.getLeastSignificantBits())
+                    .array());
+            } else {
+                byte[] text = value.getBytes(StandardCharsets.UTF_8);
+                varint(TEXT);
+                varint(text.length);
+                buffer.writeBytes(text);
+            }
+        }
+
+        private static boolean isCanonicalUuid(String value) {
+            if (value.length() != 36) {
+                return false;
+            }
+            try {
+                return UUID.fromString(value).toString().equals(value);
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+        }
+    }
+}
@@ -1,14 +1,23 @@
 package com.example.demo.config;
 
+import com.example.demo.dto.Web3Operation;
 import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.AsyncRabbitTemplate;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
 @Configuration
 public class RabbitMQConfig {
 
@@ -32,6 +41,23 @@ public class RabbitMQConfig {
     public static final String WEB3_EXCHANGE = "web3.exchange";
     public static final String WEB3_ROUTING_KEY = "web3.operation";
 
+    // One queue per cost class, bound with one routing key per operation type
+    public static final String WEB3_LIGHT_QUEUE = "web3.operations.light";
+    public static final String WEB3_STANDARD_QUEUE = "web3.operations.standard";
+    public static final String WEB3_HEAVY_QUEUE = "web3.operations.heavy";
+
+    public static String web3RoutingKey(Web3Operation.OperationType type) {
+        return WEB3_ROUTING_KEY + "." + type.name().toLowerCase(Locale.ROOT);
+    }
+
+    public static String web3Queue(Web3Operation.CostClass costClass) {
+        return switch (costClass) {
+            case LIGHT -> WEB3_LIGHT_QUEUE;
+            case STANDARD -> WEB3_STANDARD_QUEUE;
+            case HEAVY -> WEB3_HEAVY_QUEUE;
+        };
+    }
+
     @Bean
     public ConnectionFactory connectionFactory() {
         CachingConnectionFactory connectionFactory = new CachingConnectionFactory();
@@ -44,13 +70,24 @@ public class RabbitMQConfig {
         connectionFactory.setChannelCacheSize(25);
         connectionFactory.setRequestedHeartBeat(60);
 
+        // Every publish is acked or nacked by the broker, unroutable ones are returned
+        connectionFactory.setPublisherConfirmType(CachingConnectionFactory.ConfirmType.CORRELATED);
+        connectionFactory.setPublisherReturns(true);
+
         return connectionFactory;
     }
 
+    // Also picked up by the listener container factory, so both sides negotiate the same way
     @Bean
-    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
+    public MessageConverter messageConverter(MessagingConfig messagingConfig) {
+        return new NegotiatingMessageConverter(new Jackson2JsonMessageConverter(),
+            messagingConfig.getCodec() == MessagingConfig.PayloadCodec.BINARY);
+    }
+
+    @Bean
+    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory, MessageConverter messageConverter) {
         RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
-        rabbitTemplate.setMessageConverter(new Jackson2JsonMessageConverter());
+        rabbitTemplate.setMessageConverter(messageConverter);
 
         // High throughput settings
         rabbitTemplate.setMandatory(true);
@@ -59,6 +96,46 @@ public class RabbitMQConfig {
         return rabbitTemplate;
     }
 
+    /**
+     * Request-reply over RabbitMQ direct reply-to: replies come back on the
+     * publishing channel's pseudo-queue, so each API instance only sees its
+     * own replies and no reply queue has to be declared. Pending requests are
+     * correlated by id and fail after {@code messaging.reply-timeout-millis}.
+     */
+    @Bean
+    public AsyncRabbitTemplate asyncRabbitTemplate(RabbitTemplate rabbitTemplate, MessagingConfig messagingConfig) {
+        AsyncRabbitTemplate asyncRabbitTemplate = new AsyncRabbitTemplate(rabbitTemplate);
+        asyncRabbitTemplate.setReceiveTimeout(messagingConfig.getReplyTimeoutMillis());
+        asyncRabbitTemplate.setEnableConfirms(true);
+        asyncRabbitTemplate.setMandatory(true);
+        return asyncRabbitTemplate;
+    }
+
+    /**
+     * Delivers up to {@code messaging.batch.size} web3 operations at once,
+     * acknowledged one by one by the batch consumer. Every lane gets its own
+     * containers from this factory, so a slow heavy batch never holds up
+     * light ones.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "messaging.batch", name = "enabled", havingValue = "true")
+    public SimpleRabbitListenerContainerFactory web3BatchContainerFactory(ConnectionFactory connectionFactory,
+                                                                          MessageConverter messageConverter,
+                                                                          MessagingConfig messagingConfig) {
+        MessagingConfig.Batch batch = messagingConfig.getBatch();
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(messageConverter);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batch.getSize());
+        factory.setReceiveTimeout(batch.getReceiveTimeoutMillis());
+        factory.setPrefetchCount(batch.getSize());
+        factory.setConcurrentConsumers(batch.getConcurrency());
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        return factory;
+    }
+
     @Bean
     public Queue walletQueue() {
         return QueueBuilder.durable(WALLET_QUEUE)
@@ -93,6 +170,7 @@ public class RabbitMQConfig {
         return new DirectExchange(WEB3_EXCHANGE);
     }
 
+    // Kept so messages from nodes still using the shared routing key are drained
     @Bean
     public Binding web3Binding(Queue web3Queue, DirectExchange web3Exchange) {
         return BindingBuilder
@@ -100,4 +178,55 @@ public class RabbitMQConfig {
                 .to(web3Exchange)
                 .with(WEB3_ROUTING_KEY);
     }
+
+    @Bean
+    public Declarables web3Lanes(DirectExchange web3Exchange) {
+        List<Declarable> declarables = new ArrayList<>();
+        for (Web3Operation.CostClass costClass : Web3Operation.CostClass.values()) {
+            declarables.add(QueueBuilder.durable(web3Queue(costClass))
+                    .withArgument("x-max-length", 100000)
+                    .withArgument("x-overflow", "reject-publish")
+                    .build());
+        }
+        for (Web3Operation.OperationType type : Web3Operation.OperationType.values()) {
+            declarables.add(new Binding(web3Queue(type.getCostClass()), Binding.DestinationType.QUEUE,
+                    web3Exchange.getName(), web3RoutingKey(type), null));
+        }
+        return new Declarables(declarables);
+    }
+
+    @Bean
+    public SimpleRabbitListenerContainerFactory web3LightContainerFactory(ConnectionFactory connectionFactory,
+                                                                          MessageConverter messageConverter,
+                                                                          MessagingConfig messagingConfig) {
+        return laneContainerFactory(connectionFactory, messageConverter, messagingConfig.getLanes().getLight());
+    }
+
+    @Bean
+    public SimpleRabbitListenerContainerFactory web3StandardContainerFactory(ConnectionFactory connectionFactory,
+                                                                             MessageConverter messageConverter,
+                                                                             MessagingConfig messagingConfig) {
+        return laneContainerFactory(connectionFactory, messageConverter, messagingConfig.getLanes().getStandard());
+    }
+
+    @Bean
+    public SimpleRabbitListenerContainerFactory web3HeavyContainerFactory(ConnectionFactory connectionFactory,
+                                                                          MessageConverter messageConverter,
+                                                                          MessagingConfig messagingConfig) {
+        return laneContainerFactory(connectionFactory, messageConverter, messagingConfig.getLanes().getHeavy());
+    }
+
+    private static SimpleRabbitListenerContainerFactory laneContainerFactory(ConnectionFactory connectionFactory,
+                                                                             MessageConverter messageConverter,
+                                                                             MessagingConfig.Lane lane) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(messageConverter);
+        factory.setConcurrentConsumers(lane.getConcurrency());
+        factory.setMaxConcurrentConsumers(Math.max(lane.getConcurrency(), lane.getMaxConcurrency()));
+        factory.setPrefetchCount(lane.getPrefetch());
+        factory.setAcknowledgeMode(AcknowledgeMode.AUTO);
+        factory.setDefaultRequeueRejected(false);
+        return factory;
+    }
 }
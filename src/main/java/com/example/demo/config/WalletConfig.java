@@ -0,0 +1,52 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "wallet")
+public class WalletConfig {
+    private Kdf kdf = new Kdf();
+    private Pool pool = new Pool();
+    private Keystore keystore = new Keystore();
+    private int maxBulkCreate = 1000;
+    // Parallel scrypt derivations for /wallets/create/bulk, independent of CPU count. A STANDARD
+    // derivation needs about 256 MiB, so leave (bulk-threads + pool.refill-threads) x 256 MiB of heap free
+    private int bulkThreads = 2;
+
+    public enum KdfStrength {
+        LIGHT,
+        STANDARD,
+        CUSTOM
+    }
+
+    @Data
+    public static class Kdf {
+        // STANDARD matches web3j's generateNewWalletFile; LIGHT trades keystore security for pool throughput
+        private KdfStrength strength = KdfStrength.STANDARD;
+        // Only read for CUSTOM; LIGHT is n=4096 p=6 and STANDARD is n=262144 p=1
+        private int n = 16384;
+        private int p = 1;
+    }
+
+    @Data
+    public static class Pool {
+        private boolean enabled = true;
+        // Pre-encrypted keystores kept ready for CREATE_WALLET
+        private int size = 256;
+        private int refillThreads = 1;
+    }
+
+    @Data
+    public static class Keystore {
+        // Base64 AES key (16, 24 or 32 bytes) that encrypts stored keystore passwords
+        private String masterKey;
+        // Generate a throwaway key when none is set; wallets stored under it are lost on restart
+        private boolean allowEphemeralMasterKey = false;
+        // Decrypted signers kept in memory
+        private int cacheSize = 10000;
+        private long cacheExpireMinutes = 30;
+    }
+}
@@ -1,5 +1,13 @@
 package com.example.demo.config;
 
+import com.example.demo.service.RpcNode;
+import com.example.demo.service.Web3jNodePool;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.retry.annotation.EnableRetry;
@@ -12,6 +20,10 @@ import org.web3j.protocol.http.HttpService;
 
 import lombok.RequiredArgsConstructor;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 @EnableRetry
 @EnableAsync
@@ -21,8 +33,61 @@ public class Web3jBeanConfig {
     private final Web3jConfig web3jConfig;
 
     @Bean
-    public Web3j web3j() {
-        return Web3j.build(new HttpService(web3jConfig.getNodeUrl()));
+    public OkHttpClient web3jHttpClient() {
+        Web3jConfig.Http http = web3jConfig.getHttp();
+
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(http.getMaxRequests());
+        dispatcher.setMaxRequestsPerHost(http.getMaxRequestsPerHost());
+
+        return new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(
+                    http.getMaxIdleConnections(), http.getKeepAliveMillis(), TimeUnit.MILLISECONDS))
+                .dispatcher(dispatcher)
+                .connectTimeout(Duration.ofMillis(http.getConnectTimeoutMillis()))
+                .readTimeout(Duration.ofMillis(web3jConfig.getHttpTimeout()))
+                .writeTimeout(Duration.ofMillis(http.getWriteTimeoutMillis()))
+                // HTTP/2 is negotiated through ALPN on TLS endpoints, plain http stays on 1.1
+                .protocols(http.isHttp2() ? List.of(Protocol.HTTP_2, Protocol.HTTP_1_1) : List.of(Protocol.HTTP_1_1))
+                .build();
+    }
+
+    @Bean
+    public MeterBinder web3jHttpClientMetrics(OkHttpClient web3jHttpClient) {
+        return registry -> {
+            ConnectionPool pool = web3jHttpClient.connectionPool();
+            Dispatcher dispatcher = web3jHttpClient.dispatcher();
+            Gauge.builder("web3j.http.connections", pool, ConnectionPool::connectionCount).register(registry);
+            Gauge.builder("web3j.http.connections.idle", pool, ConnectionPool::idleConnectionCount).register(registry);
+            Gauge.builder("web3j.http.calls.running", dispatcher, Dispatcher::runningCallsCount).register(registry);
+            Gauge.builder("web3j.http.calls.queued", dispatcher, Dispatcher::queuedCallsCount).register(registry);
+        };
+    }
+
+    @Bean
+    public Web3jNodePool web3jNodePool(OkHttpClient web3jHttpClient) {
+        List<Web3jConfig.Endpoint> endpoints = web3jConfig.getEndpoints();
+        List<RpcNode> nodes = endpoints.isEmpty()
+            ? List.of(new RpcNode(web3jConfig.getNodeUrl(), 1, httpService(web3jConfig.getNodeUrl(), web3jHttpClient)))
+            : endpoints.stream()
+                .map(endpoint -> new RpcNode(
+                    endpoint.getUrl(), endpoint.getWeight(), httpService(endpoint.getUrl(), web3jHttpClient)))
+                .toList();
+        return new Web3jNodePool(nodes, web3jConfig.getPool());
+    }
+
+    private HttpService httpService(String url, OkHttpClient httpClient) {
+        HttpService service = new HttpService(url, httpClient);
+        if (!web3jConfig.getHttp().isGzip()) {
+            // OkHttp asks for gzip transparently unless the request sets its own encoding
+            service.addHeader("Accept-Encoding", "identity");
+        }
+        return service;
+    }
+
+    @Bean
+    public Web3j web3j(Web3jNodePool web3jNodePool) {
+        return Web3j.build(web3jNodePool);
     }
 
     @Bean
@@ -4,6 +4,9 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Data
 @Configuration
 @ConfigurationProperties(prefix = "ethereum")
@@ -12,4 +15,190 @@ public class Web3jConfig {
     private long httpTimeout = 10000;
     private int maxRetries = 3;
     private long retryDelay = 1000;
+    private List<Endpoint> endpoints = new ArrayList<>();
+    private Http http = new Http();
+    private Pool pool = new Pool();
+    private Batch batch = new Batch();
+    private Head head = new Head();
+    private FinalizedStore finalizedStore = new FinalizedStore();
+    private Multicall multicall = new Multicall();
+    private BlockRange blockRange = new BlockRange();
+    private Indexer indexer = new Indexer();
+    private Events events = new Events();
+    private GasOracle gasOracle = new GasOracle();
+    private GasEstimation gasEstimation = new GasEstimation();
+    private Send send = new Send();
+    private Receipts receipts = new Receipts();
+    private Mempool mempool = new Mempool();
+
+    @Data
+    public static class Http {
+        // httpTimeout above is used as the read timeout
+        private long connectTimeoutMillis = 5000;
+        private long writeTimeoutMillis = 10000;
+        private int maxIdleConnections = 50;
+        private long keepAliveMillis = 300000;
+        private int maxRequests = 256;
+        private int maxRequestsPerHost = 64;
+        private boolean http2 = true;
+        private boolean gzip = true;
+    }
+
+    @Data
+    public static class Endpoint {
+        private String url;
+        private int weight = 1;
+    }
+
+    @Data
+    public static class Pool {
+        private long probeIntervalMillis = 5000;
+        // Blocks a node may trail the best known head and still serve latest reads
+        private int maxHeadLag = 1;
+        private int failureThreshold = 3;
+        // Least time out of rotation; every failed probe meanwhile restarts it
+        private long ejectMillis = 30000;
+        private double ewmaAlpha = 0.2;
+    }
+
+    @Data
+    public static class Batch {
+        // Calls arriving within the window are sent as one JSON-RPC batch
+        private boolean enabled = true;
+        private long windowMillis = 2;
+        private int maxSize = 100;
+        private int senderThreads = 4;
+    }
+
+    @Data
+    public static class Head {
+        // newHeads subscription endpoint; polling only when empty
+        private String wsUrl;
+        private long pollIntervalMillis = 2000;
+        private long reconnectIntervalMillis = 30000;
+    }
+
+    @Data
+    public static class FinalizedStore {
+        private boolean enabled = true;
+        private String directory = "data/chain-store";
+        private int segmentSizeBytes = 64 * 1024 * 1024;
+        private int maxSegments = 64;
+        // Blocks, transactions and receipts this deep are treated as immutable
+        private long confirmations = 64;
+        private long recentTtlSeconds = 15;
+        private long recentMaxSize = 1000;
+    }
+
+    @Data
+    public static class Multicall {
+        // Multicall3 is deployed at the same address on mainnet and most other chains
+        private String address = "0xcA11bde05977b3631167028862bE2a173976CA11";
+        private int maxChunkSize = 1000;
+        private long callGasLimit = 30000000;
+        private long gasPerCall = 5000;
+        private int parallelism = 8;
+        private int maxAddresses = 50000;
+    }
+
+    @Data
+    public static class BlockRange {
+        // Blocks fetched ahead of the writer for one stream
+        private int window = 32;
+        // Fetch threads shared by all streams
+        private int parallelism = 16;
+        private long maxBlocks = 1000000;
+    }
+
+    @Data
+    public static class Indexer {
+        private boolean enabled = false;
+        private long startBlock = 0;
+        // Blocks below head minus this depth are backfilled in parallel; above it they are followed in order
+        private int confirmations = 64;
+        private int chunkSize = 50;
+        private int parallelism = 4;
+        // Block hashes kept for reorg detection at the tip
+        private int retainedBlocks = 256;
+        private int maxPageSize = 500;
+        // Initial slots of the off-heap known-address index, which grows as needed
+        private int addressIndexCapacity = 65536;
+    }
+
+    @Data
+    public static class Events {
+        // Starts within bloom-check-max-blocks so the bloom check runs until eth_getLogs proves the range sparse
+        private int initialChunkSize = 100;
+        private int minChunkSize = 1;
+        private int maxChunkSize = 100000;
+        // Chunks grow while they return fewer than a quarter of this and shrink above it
+        private int targetLogsPerChunk = 5000;
+        private int parallelism = 4;
+        // Chunks up to this many blocks check header logsBloom before calling eth_getLogs
+        private int bloomCheckMaxBlocks = 100;
+        private int maxPageSize = 1000;
+    }
+
+    @Data
+    public static class GasOracle {
+        private boolean enabled = true;
+        // Blocks of eth_feeHistory kept in the rolling window
+        private int blocks = 20;
+        private double slowPercentile = 10;
+        private double standardPercentile = 50;
+        private double fastPercentile = 90;
+        private long minPriorityFeeWei = 0;
+        private long coldRefreshTimeoutMillis = 5000;
+    }
+
+    @Data
+    public static class GasEstimation {
+        private int codeCacheSize = 100000;
+        // Blocks an "account has no code" answer is trusted for
+        private int eoaMaxAgeBlocks = 4;
+        private int estimateCacheSize = 10000;
+    }
+
+    @Data
+    public static class Send {
+        // Hex private keys of the hot wallets SEND_ETH may sign for
+        private List<String> privateKeys = new ArrayList<>();
+        // Usernames allowed to send from those hot wallets; nobody else may
+        private List<String> operators = new ArrayList<>();
+        private int prepareThreads = 4;
+        private int prepareQueueSize = 10000;
+        // Defaults to the number of available processors
+        private int signThreads = 0;
+        private int signQueueSize = 10000;
+        private int broadcastQueueSize = 10000;
+        private int maxInFlightBroadcasts = 500;
+        private int maxNonceRetries = 2;
+    }
+
+    @Data
+    public static class Receipts {
+        // Transactions this service broadcast
+        private int maxTracked = 100000;
+        // Hashes only a client awaits; a separate budget so awaits cannot crowd out broadcasts
+        private int maxAwaited = 1000;
+        // Up to this many pending hashes are all fetched each head; above it only those seen in new blocks
+        private int fullCheckThreshold = 200;
+        private int maxBlocksPerCheck = 16;
+        private long pendingTimeoutMillis = 3600000;
+        private long maxAwaitMillis = 60000;
+    }
+
+    @Data
+    public static class Mempool {
+        private boolean enabled = true;
+        // Most recent pending transactions kept in memory, older ones are overwritten
+        private int capacity = 50000;
+        private long pollIntervalMillis = 1000;
+        private long reconnectIntervalMillis = 30000;
+        private int fetchBatchSize = 200;
+        // Announced hashes waiting for their bodies; further announcements are dropped while full
+        private int announceQueueSize = 20000;
+        private int maxQueryLimit = 1000;
+        private int pushQueueSize = 10000;
+    }
 }
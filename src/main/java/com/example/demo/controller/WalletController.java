@@ -1,10 +1,14 @@
 package com.example.demo.controller;
 
+import com.example.demo.config.WalletConfig;
 import com.example.demo.model.Wallet;
 import com.example.demo.repository.WalletRepository;
 import com.example.demo.exception.WalletNotFoundException;
 import com.example.demo.dto.WalletOperation;
 import com.example.demo.dto.Web3Response;
+import com.example.demo.service.GeneratedWallet;
+import com.example.demo.service.KeystoreStore;
+import com.example.demo.service.WalletGenerator;
 import com.example.demo.service.WalletMessageProducer;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -15,10 +19,13 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.security.Principal;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/wallets")
@@ -29,6 +36,9 @@ public class WalletController {
 
     private final WalletRepository walletRepo;
     private final WalletMessageProducer messageProducer;
+    private final WalletGenerator walletGenerator;
+    private final KeystoreStore keystoreStore;
+    private final WalletConfig walletConfig;
 
     @GetMapping
     public ResponseEntity<List<Wallet>> getAllWallets() {
@@ -69,17 +79,46 @@ public class WalletController {
 
     @Operation(summary = "Create a new wallet")
     @PostMapping("/create")
-    public CompletableFuture<ResponseEntity<Web3Response<Map<String, Object>>>> createWallet() {
+    public CompletableFuture<ResponseEntity<Web3Response<Map<String, Object>>>> createWallet(Principal principal) {
         WalletOperation operation = new WalletOperation();
         operation.setId(UUID.randomUUID().toString());
         operation.setType(WalletOperation.OperationType.CREATE_WALLET);
+        operation.setRequestedBy(principal.getName());
 
         return messageProducer.sendOperation(operation)
-            .thenApply(v -> ResponseEntity.ok(operation.getResult()))
+            .thenApply(ResponseEntity::ok)
             .exceptionally(throwable -> ResponseEntity.internalServerError()
                 .body(Web3Response.error(throwable.getMessage())));
     }
 
+    @Operation(summary = "Create many wallets",
+        description = "Takes pre-generated wallets from the pool and generates the remainder in parallel")
+    @PostMapping("/create/bulk")
+    public CompletableFuture<ResponseEntity<Web3Response<Map<String, Object>>>> createWallets(
+            @Parameter(description = "Number of wallets") @RequestParam int count,
+            Principal principal) {
+        if (count < 1 || count > walletConfig.getMaxBulkCreate()) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                .body(Web3Response.error("count must be between 1 and " + walletConfig.getMaxBulkCreate())));
+        }
+
+        return walletGenerator.create(count)
+            .thenApply(wallets -> {
+                keystoreStore.saveAll(wallets, principal.getName());
+                return wallets.stream().map(GeneratedWallet::address).toList();
+            })
+            .thenApply(addresses -> ResponseEntity.ok(Web3Response.success(Map.<String, Object>of(
+                "count", addresses.size(),
+                "addresses", addresses
+            ))))
+            .exceptionally(throwable -> {
+                Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+                return cause instanceof RejectedExecutionException
+                    ? ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Web3Response.error(cause.getMessage()))
+                    : ResponseEntity.internalServerError().body(Web3Response.error(cause.getMessage()));
+            });
+    }
+
     @Operation(summary = "Get wallet balance")
     @GetMapping("/balance/{address}")
     public CompletableFuture<ResponseEntity<Web3Response<Map<String, Object>>>> getBalance(
@@ -90,7 +129,7 @@ public class WalletController {
         operation.setAddress(address);
 
         return messageProducer.sendOperation(operation)
-            .thenApply(v -> ResponseEntity.ok(operation.getResult()))
+            .thenApply(ResponseEntity::ok)
             .exceptionally(throwable -> ResponseEntity.internalServerError()
                 .body(Web3Response.error(throwable.getMessage())));
     }
@@ -100,16 +139,18 @@ public class WalletController {
     public CompletableFuture<ResponseEntity<Web3Response<Map<String, Object>>>> sendEth(
             @Parameter(description = "From address") @RequestParam String from,
             @Parameter(description = "To address") @RequestParam String to,
-            @Parameter(description = "Amount in ETH") @RequestParam BigDecimal amount) {
+            @Parameter(description = "Amount in ETH") @RequestParam BigDecimal amount,
+            Principal principal) {
         WalletOperation operation = new WalletOperation();
         operation.setId(UUID.randomUUID().toString());
         operation.setType(WalletOperation.OperationType.SEND_ETH);
+        operation.setRequestedBy(principal.getName());
         operation.setAddress(from);
         operation.setToAddress(to);
         operation.setAmount(amount);
 
         return messageProducer.sendOperation(operation)
-            .thenApply(v -> ResponseEntity.ok(operation.getResult()))
+            .thenApply(ResponseEntity::ok)
             .exceptionally(throwable -> ResponseEntity.internalServerError()
                 .body(Web3Response.error(throwable.getMessage())));
     }
@@ -117,14 +158,18 @@ public class WalletController {
     @Operation(summary = "Get transaction history")
     @GetMapping("/transactions/{address}")
     public CompletableFuture<ResponseEntity<Web3Response<Map<String, Object>>>> getTransactionHistory(
-            @Parameter(description = "Ethereum address") @PathVariable String address) {
+            @Parameter(description = "Ethereum address") @PathVariable String address,
+            @Parameter(description = "Cursor from the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "50") int limit) {
         WalletOperation operation = new WalletOperation();
         operation.setId(UUID.randomUUID().toString());
         operation.setType(WalletOperation.OperationType.GET_TRANSACTION_HISTORY);
         operation.setAddress(address);
+        operation.setCursor(cursor);
+        operation.setLimit(limit);
 
         return messageProducer.sendOperation(operation)
-            .thenApply(v -> ResponseEntity.ok(operation.getResult()))
+            .thenApply(ResponseEntity::ok)
             .exceptionally(throwable -> ResponseEntity.internalServerError()
                 .body(Web3Response.error(throwable.getMessage())));
     }
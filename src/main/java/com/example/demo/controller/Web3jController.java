@@ -1,20 +1,42 @@
 package com.example.demo.controller;
 
+import com.example.demo.config.Web3jConfig;
 import com.example.demo.dto.Web3Operation;
 import com.example.demo.dto.Web3Response;
-import com.example.demo.service.Web3MessageProducer;
+import com.example.demo.service.AddressWatchlist;
+import com.example.demo.service.BlockRangeStreamer;
+import com.example.demo.service.EventIndexer;
+import com.example.demo.service.EventLogPage;
+import com.example.demo.service.GasOracleSnapshot;
+import com.example.demo.service.IWeb3jService;
+import com.example.demo.service.MempoolMonitor;
+import com.example.demo.service.ReceiptTracker;
+import com.example.demo.service.Web3OperationDispatcher;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.web3j.crypto.WalletUtils;
+import org.web3j.protocol.core.methods.response.Transaction;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
 
 @RestController
 @RequestMapping("/api/v1/web3")
@@ -22,7 +44,14 @@ import java.util.concurrent.CompletableFuture;
 @Tag(name = "Web3 Operations", description = "APIs for interacting with Ethereum blockchain")
 public class Web3jController {
 
-    private final Web3MessageProducer messageProducer;
+    private final Web3OperationDispatcher operationDispatcher;
+    private final IWeb3jService web3jService;
+    private final Web3jConfig web3jConfig;
+    private final BlockRangeStreamer blockRangeStreamer;
+    private final AddressWatchlist watchlist;
+    private final EventIndexer eventIndexer;
+    private final ReceiptTracker receiptTracker;
+    private final MempoolMonitor mempoolMonitor;
 
     @Operation(summary = "Get ETH balance")
     @GetMapping("/balance/{address}")
@@ -33,12 +62,121 @@ public class Web3jController {
         operation.setType(Web3Operation.OperationType.GET_BALANCE);
         operation.setAddress(address);
 
-        return messageProducer.sendOperation(operation)
-            .thenApply(v -> ResponseEntity.ok(operation.getResult()))
+        return operationDispatcher.dispatch(operation)
+            .thenApply(ResponseEntity::ok)
             .exceptionally(throwable -> ResponseEntity.internalServerError()
                 .body(Web3Response.error(throwable.getMessage())));
     }
 
+    @Operation(summary = "Get ETH balances for many addresses",
+        description = "Reads all balances at one block through Multicall3; values are in wei")
+    @PostMapping("/balances")
+    public CompletableFuture<ResponseEntity<Web3Response<Map<String, Object>>>> getEthBalances(
+            @RequestBody List<String> addresses) {
+        int maxAddresses = web3jConfig.getMulticall().getMaxAddresses();
+        if (addresses.size() > maxAddresses) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                .body(Web3Response.error("At most " + maxAddresses + " addresses per request")));
+        }
+
+        return web3jService.getEthBalances(addresses)
+            .thenApply(balances -> ResponseEntity.ok(Web3Response.success(Map.<String, Object>of(
+                "count", balances.size(),
+                "balances", balances
+            ))))
+            .exceptionally(throwable -> {
+                Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+                return cause instanceof IllegalArgumentException
+                    ? ResponseEntity.badRequest().body(Web3Response.error(cause.getMessage()))
+                    : ResponseEntity.internalServerError().body(Web3Response.error(cause.getMessage()));
+            });
+    }
+
+    @Operation(summary = "Index contract events",
+        description = "Fetches the logs of one event over a finalized block range into the local event index")
+    @PostMapping("/events/index")
+    public CompletableFuture<ResponseEntity<Web3Response<Map<String, Object>>>> indexEvents(
+            @Parameter(description = "Contract address") @RequestParam String address,
+            @Parameter(description = "Event signature hash (topic0)") @RequestParam String topic0,
+            @Parameter(description = "First block number") @RequestParam long fromBlock,
+            @Parameter(description = "Last block number, inclusive") @RequestParam long toBlock) {
+        return eventIndexer.index(address, topic0, fromBlock, toBlock)
+            .thenApply(result -> ResponseEntity.ok(Web3Response.success(Map.<String, Object>of(
+                "address", result.address(),
+                "topic0", result.topic0(),
+                "fromBlock", result.fromBlock(),
+                "toBlock", result.toBlock(),
+                "logs", result.logs(),
+                "chunks", result.chunks(),
+                "skippedChunks", result.skippedChunks(),
+                "elapsedMillis", result.elapsedMillis()
+            ))))
+            .exceptionally(throwable -> {
+                Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+                return cause instanceof IllegalArgumentException
+                    ? ResponseEntity.badRequest().body(Web3Response.error(cause.getMessage()))
+                    : ResponseEntity.internalServerError().body(Web3Response.error(cause.getMessage()));
+            });
+    }
+
+    @Operation(summary = "Query indexed contract events")
+    @GetMapping("/events")
+    public ResponseEntity<Web3Response<Map<String, Object>>> getEvents(
+            @Parameter(description = "Contract address") @RequestParam String address,
+            @Parameter(description = "Event signature hash (topic0)") @RequestParam String topic0,
+            @Parameter(description = "First indexed topic") @RequestParam(required = false) String topic1,
+            @Parameter(description = "Second indexed topic") @RequestParam(required = false) String topic2,
+            @Parameter(description = "First block number") @RequestParam(defaultValue = "0") long fromBlock,
+            @Parameter(description = "Last block number, inclusive") @RequestParam(defaultValue = "9223372036854775807") long toBlock,
+            @Parameter(description = "Cursor from the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "100") int limit) {
+        try {
+            EventLogPage page = eventIndexer.query(address, topic0, topic1, topic2, fromBlock, toBlock, cursor, limit);
+            Map<String, Object> result = new HashMap<>();
+            result.put("logs", page.logs());
+            result.put("nextCursor", page.nextCursor());
+            return ResponseEntity.ok(Web3Response.success(result));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Web3Response.error(e.getMessage()));
+        }
+    }
+
+    @Operation(summary = "List watched addresses")
+    @GetMapping("/watchlist")
+    public ResponseEntity<Web3Response<Map<String, Object>>> getWatchlist() {
+        List<String> addresses = watchlist.list();
+        return ResponseEntity.ok(Web3Response.success(Map.of(
+            "count", addresses.size(),
+            "addresses", addresses
+        )));
+    }
+
+    @Operation(summary = "Watch an address")
+    @PutMapping("/watchlist/{address}")
+    public ResponseEntity<Web3Response<Map<String, Object>>> watchAddress(
+            @Parameter(description = "Ethereum address") @PathVariable String address) {
+        if (!WalletUtils.isValidAddress(address)) {
+            return ResponseEntity.badRequest().body(Web3Response.error("Invalid address: " + address));
+        }
+        return ResponseEntity.ok(Web3Response.success(Map.of(
+            "address", address,
+            "added", watchlist.add(address)
+        )));
+    }
+
+    @Operation(summary = "Stop watching an address")
+    @DeleteMapping("/watchlist/{address}")
+    public ResponseEntity<Web3Response<Map<String, Object>>> unwatchAddress(
+            @Parameter(description = "Ethereum address") @PathVariable String address) {
+        if (!WalletUtils.isValidAddress(address)) {
+            return ResponseEntity.badRequest().body(Web3Response.error("Invalid address: " + address));
+        }
+        return ResponseEntity.ok(Web3Response.success(Map.of(
+            "address", address,
+            "removed", watchlist.remove(address)
+        )));
+    }
+
     @Operation(summary = "Get transaction count")
     @GetMapping("/transaction-count/{address}")
     public CompletableFuture<ResponseEntity<Web3Response<Map<String, Object>>>> getTransactionCount(
@@ -48,8 +186,8 @@ public class Web3jController {
         operation.setType(Web3Operation.OperationType.GET_TRANSACTION_COUNT);
         operation.setAddress(address);
 
-        return messageProducer.sendOperation(operation)
-            .thenApply(v -> ResponseEntity.ok(operation.getResult()))
+        return operationDispatcher.dispatch(operation)
+            .thenApply(ResponseEntity::ok)
             .exceptionally(throwable -> ResponseEntity.internalServerError()
                 .body(Web3Response.error(throwable.getMessage())));
     }
@@ -61,12 +199,34 @@ public class Web3jController {
         operation.setId(UUID.randomUUID().toString());
         operation.setType(Web3Operation.OperationType.GET_GAS_PRICE);
 
-        return messageProducer.sendOperation(operation)
-            .thenApply(v -> ResponseEntity.ok(operation.getResult()))
+        return operationDispatcher.dispatch(operation)
+            .thenApply(ResponseEntity::ok)
             .exceptionally(throwable -> ResponseEntity.internalServerError()
                 .body(Web3Response.error(throwable.getMessage())));
     }
 
+    @Operation(summary = "Get EIP-1559 fee quote",
+        description = "Base fee of the next block plus slow/standard/fast priority fees, in wei, served from memory")
+    @GetMapping("/gas-oracle")
+    public ResponseEntity<Web3Response<Map<String, Object>>> getGasOracle() {
+        GasOracleSnapshot snapshot = web3jService.getGasOracle();
+        return ResponseEntity.ok(Web3Response.success(Map.of(
+            "blockNumber", snapshot.blockNumber(),
+            "baseFee", snapshot.baseFee(),
+            "gasPrice", snapshot.gasPrice(),
+            "slow", feeTier(snapshot, snapshot.slowPriorityFee()),
+            "standard", feeTier(snapshot, snapshot.standardPriorityFee()),
+            "fast", feeTier(snapshot, snapshot.fastPriorityFee())
+        )));
+    }
+
+    private static Map<String, Object> feeTier(GasOracleSnapshot snapshot, BigInteger priorityFee) {
+        return Map.of(
+            "maxPriorityFeePerGas", priorityFee,
+            "maxFeePerGas", snapshot.maxFeePerGas(priorityFee)
+        );
+    }
+
     @Operation(summary = "Get latest block number")
     @GetMapping("/latest-block")
     public CompletableFuture<ResponseEntity<Web3Response<Map<String, Object>>>> getLatestBlockNumber() {
@@ -74,8 +234,8 @@ public class Web3jController {
         operation.setId(UUID.randomUUID().toString());
         operation.setType(Web3Operation.OperationType.GET_LATEST_BLOCK);
 
-        return messageProducer.sendOperation(operation)
-            .thenApply(v -> ResponseEntity.ok(operation.getResult()))
+        return operationDispatcher.dispatch(operation)
+            .thenApply(ResponseEntity::ok)
             .exceptionally(throwable -> ResponseEntity.internalServerError()
                 .body(Web3Response.error(throwable.getMessage())));
     }
@@ -89,12 +249,33 @@ public class Web3jController {
         operation.setType(Web3Operation.OperationType.GET_BLOCK);
         operation.setAddress(number.toString());
 
-        return messageProducer.sendOperation(operation)
-            .thenApply(v -> ResponseEntity.ok(operation.getResult()))
+        return operationDispatcher.dispatch(operation)
+            .thenApply(ResponseEntity::ok)
             .exceptionally(throwable -> ResponseEntity.internalServerError()
                 .body(Web3Response.error(throwable.getMessage())));
     }
 
+    @Operation(summary = "Stream a range of blocks",
+        description = "Writes one block per line as NDJSON, in block order; hashesOnly returns transaction hashes only")
+    @GetMapping(value = "/block-range", produces = "application/x-ndjson")
+    public void getBlockRange(
+            @Parameter(description = "First block number") @RequestParam BigInteger from,
+            @Parameter(description = "Last block number, inclusive") @RequestParam BigInteger to,
+            @Parameter(description = "Omit full transaction details") @RequestParam(defaultValue = "false") boolean hashesOnly,
+            HttpServletResponse response) throws IOException {
+        long maxBlocks = web3jConfig.getBlockRange().getMaxBlocks();
+        if (from.signum() < 0 || to.compareTo(from) < 0
+                || to.subtract(from).compareTo(BigInteger.valueOf(maxBlocks)) >= 0) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+                "Expected 0 <= from <= to and at most " + maxBlocks + " blocks");
+            return;
+        }
+
+        // Written on the request thread so a slow client pushes back on the fetches
+        response.setContentType("application/x-ndjson");
+        blockRangeStreamer.stream(from, to, hashesOnly, response.getOutputStream());
+    }
+
     @Operation(summary = "Get transaction by hash")
     @GetMapping("/transaction/{hash}")
     public CompletableFuture<ResponseEntity<Web3Response<Map<String, Object>>>> getTransactionByHash(
@@ -104,8 +285,8 @@ public class Web3jController {
         operation.setType(Web3Operation.OperationType.GET_TRANSACTION);
         operation.setAddress(hash);
 
-        return messageProducer.sendOperation(operation)
-            .thenApply(v -> ResponseEntity.ok(operation.getResult()))
+        return operationDispatcher.dispatch(operation)
+            .thenApply(ResponseEntity::ok)
             .exceptionally(throwable -> ResponseEntity.internalServerError()
                 .body(Web3Response.error(throwable.getMessage())));
     }
@@ -119,12 +300,96 @@ public class Web3jController {
         operation.setType(Web3Operation.OperationType.GET_TRANSACTION_RECEIPT);
         operation.setAddress(hash);
 
-        return messageProducer.sendOperation(operation)
-            .thenApply(v -> ResponseEntity.ok(operation.getResult()))
+        return operationDispatcher.dispatch(operation)
+            .thenApply(ResponseEntity::ok)
             .exceptionally(throwable -> ResponseEntity.internalServerError()
                 .body(Web3Response.error(throwable.getMessage())));
     }
 
+    @Operation(summary = "Wait for a transaction receipt",
+        description = "Completes as soon as the transaction is mined, or answers 202 if it is still pending at the timeout")
+    @GetMapping("/transaction-receipt/{hash}/await")
+    public CompletableFuture<ResponseEntity<Web3Response<Map<String, Object>>>> awaitTransactionReceipt(
+            @Parameter(description = "Transaction hash") @PathVariable String hash,
+            @Parameter(description = "How long to wait in milliseconds") @RequestParam(defaultValue = "30000") long timeoutMillis) {
+        long timeout = Math.max(0, Math.min(timeoutMillis, web3jConfig.getReceipts().getMaxAwaitMillis()));
+        CompletableFuture<TransactionReceipt> receipt;
+        try {
+            // The timeout goes on a copy so other waiters keep the tracked future
+            receipt = receiptTracker.track(hash).copy().orTimeout(timeout, TimeUnit.MILLISECONDS);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(Web3Response.error(e.getMessage())));
+        }
+
+        return receipt
+            .thenApply(mined -> ResponseEntity.ok(Web3Response.success(Map.<String, Object>of(
+                "transactionHash", hash,
+                "status", "mined",
+                "receipt", mined
+            ))))
+            .exceptionally(throwable -> {
+                Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+                return cause instanceof TimeoutException
+                    ? ResponseEntity.accepted().body(Web3Response.success(Map.<String, Object>of(
+                        "transactionHash", hash,
+                        "status", "pending"
+                    )))
+                    : ResponseEntity.internalServerError().body(Web3Response.error(cause.getMessage()));
+            });
+    }
+
+    @Operation(summary = "Get pending transactions",
+        description = "Most recent first, served from the in-memory mempool; address matches sender or recipient")
+    @GetMapping("/mempool")
+    public ResponseEntity<Web3Response<Map<String, Object>>> getMempool(
+            @Parameter(description = "Sender or recipient address") @RequestParam(required = false) String address,
+            @Parameter(description = "Maximum transactions") @RequestParam(defaultValue = "100") int limit) {
+        if (address != null && !WalletUtils.isValidAddress(address)) {
+            return ResponseEntity.badRequest().body(Web3Response.error("Invalid address: " + address));
+        }
+        int bounded = Math.max(1, Math.min(limit, web3jConfig.getMempool().getMaxQueryLimit()));
+        List<Transaction> transactions = address != null
+            ? mempoolMonitor.byAddress(address, bounded)
+            : mempoolMonitor.recent(bounded);
+
+        return ResponseEntity.ok(Web3Response.success(Map.of(
+            "count", transactions.size(),
+            "tracked", mempoolMonitor.size(),
+            "droppedAnnouncements", mempoolMonitor.droppedAnnouncements(),
+            "transactions", transactions
+        )));
+    }
+
+    @Operation(summary = "Stream pending transactions",
+        description = "Server-sent events for new pending transactions touching the address, or any watchlisted address")
+    @GetMapping(value = "/mempool/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamMempool(
+            @Parameter(description = "Sender or recipient address") @RequestParam(required = false) String address,
+            @Parameter(description = "Only addresses on the watchlist") @RequestParam(defaultValue = "false") boolean watchlisted) {
+        if (address != null && !WalletUtils.isValidAddress(address)) {
+            return ResponseEntity.badRequest().build();
+        }
+        Predicate<Transaction> filter = transaction -> true;
+        if (address != null) {
+            filter = transaction -> address.equalsIgnoreCase(transaction.getFrom())
+                || address.equalsIgnoreCase(transaction.getTo());
+        } else if (watchlisted) {
+            filter = transaction -> watchlist.contains(transaction.getFrom()) || watchlist.contains(transaction.getTo());
+        }
+
+        SseEmitter emitter = new SseEmitter(0L);
+        Runnable unsubscribe = mempoolMonitor.subscribe(filter, transaction -> {
+            try {
+                emitter.send(SseEmitter.event().name("transaction").data(transaction));
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+            }
+        });
+        emitter.onCompletion(unsubscribe);
+        emitter.onError(error -> unsubscribe.run());
+        return ResponseEntity.ok(emitter);
+    }
+
     @Operation(summary = "Estimate gas for transaction")
     @PostMapping("/estimate-gas")
     public CompletableFuture<ResponseEntity<Web3Response<Map<String, Object>>>> estimateGas(
@@ -136,8 +401,8 @@ public class Web3jController {
         operation.setType(Web3Operation.OperationType.ESTIMATE_GAS);
         operation.setAddress(from + "," + to + "," + value);
 
-        return messageProducer.sendOperation(operation)
-            .thenApply(v -> ResponseEntity.ok(operation.getResult()))
+        return operationDispatcher.dispatch(operation)
+            .thenApply(ResponseEntity::ok)
             .exceptionally(throwable -> ResponseEntity.internalServerError()
                 .body(Web3Response.error(throwable.getMessage())));
     }
@@ -149,8 +414,8 @@ public class Web3jController {
         operation.setId(UUID.randomUUID().toString());
         operation.setType(Web3Operation.OperationType.GET_NETWORK_INFO);
 
-        return messageProducer.sendOperation(operation)
-            .thenApply(v -> ResponseEntity.ok(operation.getResult()))
+        return operationDispatcher.dispatch(operation)
+            .thenApply(ResponseEntity::ok)
             .exceptionally(throwable -> ResponseEntity.internalServerError()
                 .body(Web3Response.error(throwable.getMessage())));
     }
@@ -162,8 +427,8 @@ public class Web3jController {
         operation.setId(UUID.randomUUID().toString());
         operation.setType(Web3Operation.OperationType.GET_NETWORK_INFO);
 
-        return messageProducer.sendOperation(operation)
-            .thenApply(v -> ResponseEntity.ok(operation.getResult()))
+        return operationDispatcher.dispatch(operation)
+            .thenApply(ResponseEntity::ok)
             .exceptionally(throwable -> ResponseEntity.internalServerError()
                 .body(Web3Response.error(throwable.getMessage())));
     }
@@ -5,7 +5,6 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
-import java.util.Map;
 
 @Data
 @Builder
@@ -17,7 +16,10 @@ public class WalletOperation {
     private String address;
     private BigDecimal amount;
     private String toAddress;
-    private Web3Response<Map<String, Object>> result;
+    private String cursor;
+    private Integer limit;
+    // Username of the authenticated caller, set by the controller and checked before signing
+    private String requestedBy;
 
     public enum OperationType {
         CREATE_WALLET,
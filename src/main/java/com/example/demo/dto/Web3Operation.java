@@ -4,7 +4,6 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import java.util.Map;
 
 @Data
 @Builder
@@ -14,17 +13,36 @@ public class Web3Operation {
     private String id;
     private OperationType type;
     private String address;
-    private Web3Response<Map<String, Object>> result;
 
     public enum OperationType {
-        GET_BALANCE,
-        GET_TRANSACTION_COUNT,
-        GET_GAS_PRICE,
-        GET_LATEST_BLOCK,
-        GET_BLOCK,
-        GET_TRANSACTION,
-        GET_TRANSACTION_RECEIPT,
-        ESTIMATE_GAS,
-        GET_NETWORK_INFO
+        GET_BALANCE(CostClass.LIGHT),
+        GET_TRANSACTION_COUNT(CostClass.LIGHT),
+        GET_GAS_PRICE(CostClass.LIGHT),
+        GET_LATEST_BLOCK(CostClass.LIGHT),
+        GET_BLOCK(CostClass.HEAVY),
+        GET_TRANSACTION(CostClass.STANDARD),
+        GET_TRANSACTION_RECEIPT(CostClass.STANDARD),
+        ESTIMATE_GAS(CostClass.HEAVY),
+        GET_NETWORK_INFO(CostClass.LIGHT);
+
+        private final CostClass costClass;
+
+        OperationType(CostClass costClass) {
+            this.costClass = costClass;
+        }
+
+        public CostClass getCostClass() {
+            return costClass;
+        }
+    }
+
+    // Decides the queue, and so the consumers, an operation is served by
+    public enum CostClass {
+        // Answered from memory or a cache in the common case
+        LIGHT,
+        // A single lookup on the node
+        STANDARD,
+        // Full blocks or EVM execution
+        HEAVY
     }
 }
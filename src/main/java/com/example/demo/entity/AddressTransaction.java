@@ -0,0 +1,46 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "address_transaction", indexes = {
+    @Index(name = "idx_address_transaction_cursor", columnList = "address, blockNumber, transactionIndex"),
+    @Index(name = "idx_address_transaction_block", columnList = "blockNumber")
+})
+public class AddressTransaction {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "address_transaction_seq")
+    @SequenceGenerator(name = "address_transaction_seq", allocationSize = 500)
+    private Long id;
+
+    @Column(nullable = false, length = 42)
+    private String address;
+
+    @Column(nullable = false)
+    private long blockNumber;
+
+    @Column(nullable = false)
+    private int transactionIndex;
+
+    @Column(nullable = false, length = 66)
+    private String transactionHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private Direction direction;
+
+    public enum Direction {
+        IN,
+        OUT,
+        SELF
+    }
+}
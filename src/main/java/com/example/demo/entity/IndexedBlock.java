@@ -0,0 +1,25 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "indexed_block")
+public class IndexedBlock {
+
+    @Id
+    private Long number;
+
+    @Column(nullable = false, length = 66)
+    private String hash;
+
+    @Column(nullable = false, length = 66)
+    private String parentHash;
+}
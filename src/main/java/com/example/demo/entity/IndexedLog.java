@@ -0,0 +1,51 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "indexed_log", indexes = {
+    @Index(name = "idx_indexed_log_event", columnList = "address, topic0, blockNumber, logIndex"),
+    @Index(name = "idx_indexed_log_block", columnList = "blockNumber")
+})
+public class IndexedLog {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "indexed_log_seq")
+    @SequenceGenerator(name = "indexed_log_seq", allocationSize = 500)
+    private Long id;
+
+    @Column(nullable = false, length = 42)
+    private String address;
+
+    @Column(nullable = false, length = 66)
+    private String topic0;
+
+    @Column(length = 66)
+    private String topic1;
+
+    @Column(length = 66)
+    private String topic2;
+
+    @Column(length = 66)
+    private String topic3;
+
+    @Column(columnDefinition = "text")
+    private String data;
+
+    @Column(nullable = false)
+    private long blockNumber;
+
+    @Column(nullable = false, length = 66)
+    private String transactionHash;
+
+    @Column(nullable = false)
+    private int logIndex;
+}
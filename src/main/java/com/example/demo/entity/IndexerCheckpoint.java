@@ -0,0 +1,22 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "indexer_checkpoint")
+public class IndexerCheckpoint {
+
+    @Id
+    private String name;
+
+    // Highest block below which everything has been indexed
+    private long blockNumber;
+}
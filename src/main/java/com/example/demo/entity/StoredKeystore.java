@@ -0,0 +1,36 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "wallet_keystore")
+public class StoredKeystore {
+
+    // Lower-case 0x address
+    @Id
+    private String address;
+
+    // Scrypt-encrypted keystore JSON
+    @Column(nullable = false, columnDefinition = "text")
+    private String keystore;
+
+    // Keystore password under AES-GCM with the master key, base64 of iv followed by ciphertext
+    @Column(nullable = false)
+    private String encryptedPassword;
+
+    // Username of the user who created the wallet, the only one who may send from it
+    @Column(nullable = false)
+    private String owner;
+
+    private Instant createdAt;
+}
@@ -0,0 +1,40 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.AddressTransaction;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface AddressTransactionRepository extends JpaRepository<AddressTransaction, Long> {
+
+    List<AddressTransaction> findByAddressOrderByBlockNumberDescTransactionIndexDesc(String address, Pageable pageable);
+
+    // Keyset page strictly older than the (blockNumber, transactionIndex) cursor
+    @Query("""
+        select t from AddressTransaction t
+        where t.address = :address
+          and (t.blockNumber < :blockNumber
+               or (t.blockNumber = :blockNumber and t.transactionIndex < :transactionIndex))
+        order by t.blockNumber desc, t.transactionIndex desc
+        """)
+    List<AddressTransaction> findPageBefore(@Param("address") String address,
+                                            @Param("blockNumber") long blockNumber,
+                                            @Param("transactionIndex") int transactionIndex,
+                                            Pageable pageable);
+
+    @Query("select t.address, max(t.blockNumber) from AddressTransaction t group by t.address")
+    Stream<Object[]> streamLastBlockByAddress();
+
+    @Modifying
+    @Query("delete from AddressTransaction t where t.blockNumber between :from and :to")
+    int deleteBlockRange(@Param("from") long from, @Param("to") long to);
+
+    @Modifying
+    @Query("delete from AddressTransaction t where t.blockNumber >= :from")
+    int deleteFromBlock(@Param("from") long from);
+}
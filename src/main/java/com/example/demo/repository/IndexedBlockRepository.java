@@ -0,0 +1,18 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.IndexedBlock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface IndexedBlockRepository extends JpaRepository<IndexedBlock, Long> {
+
+    @Modifying
+    @Query("delete from IndexedBlock b where b.number >= :from")
+    int deleteFromBlock(@Param("from") long from);
+
+    @Modifying
+    @Query("delete from IndexedBlock b where b.number < :below")
+    int deleteBelow(@Param("below") long below);
+}
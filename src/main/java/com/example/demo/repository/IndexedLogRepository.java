@@ -0,0 +1,43 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.IndexedLog;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface IndexedLogRepository extends JpaRepository<IndexedLog, Long> {
+
+    // Keyset page after the (blockNumber, logIndex) cursor, oldest first
+    @Query("""
+        select l from IndexedLog l
+        where l.address = :address and l.topic0 = :topic0
+          and l.blockNumber between :fromBlock and :toBlock
+          and (l.blockNumber > :afterBlock or (l.blockNumber = :afterBlock and l.logIndex > :afterLogIndex))
+          and (:topic1 is null or l.topic1 = :topic1)
+          and (:topic2 is null or l.topic2 = :topic2)
+        order by l.blockNumber, l.logIndex
+        """)
+    List<IndexedLog> findPage(@Param("address") String address,
+                              @Param("topic0") String topic0,
+                              @Param("topic1") String topic1,
+                              @Param("topic2") String topic2,
+                              @Param("fromBlock") long fromBlock,
+                              @Param("toBlock") long toBlock,
+                              @Param("afterBlock") long afterBlock,
+                              @Param("afterLogIndex") int afterLogIndex,
+                              Pageable pageable);
+
+    @Modifying
+    @Query("""
+        delete from IndexedLog l
+        where l.address = :address and l.topic0 = :topic0 and l.blockNumber between :fromBlock and :toBlock
+        """)
+    int deleteRange(@Param("address") String address,
+                    @Param("topic0") String topic0,
+                    @Param("fromBlock") long fromBlock,
+                    @Param("toBlock") long toBlock);
+}
@@ -0,0 +1,7 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.IndexerCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface IndexerCheckpointRepository extends JpaRepository<IndexerCheckpoint, String> {
+}
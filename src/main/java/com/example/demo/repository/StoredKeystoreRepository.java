@@ -0,0 +1,7 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.StoredKeystore;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface StoredKeystoreRepository extends JpaRepository<StoredKeystore, String> {
+}
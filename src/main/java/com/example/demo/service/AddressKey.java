@@ -0,0 +1,52 @@
+package com.example.demo.service;
+
+import org.web3j.crypto.WalletUtils;
+import org.web3j.utils.Numeric;
+
+import java.nio.ByteBuffer;
+import java.util.HexFormat;
+
+/**
+ * A 20-byte address held as three primitives, about a third of the heap of
+ * the equivalent hex String. Also the key type of address {@link OffHeapKeyIndex}es.
+ */
+public record AddressKey(long high, long middle, int low) implements OffHeapKeyIndex.Key {
+
+    public static final int BYTES = 20;
+
+    public static AddressKey of(String address) {
+        if (!WalletUtils.isValidAddress(address)) {
+            throw new IllegalArgumentException("Invalid address: " + address);
+        }
+        String hex = Numeric.cleanHexPrefix(address);
+        return new AddressKey(
+            Long.parseUnsignedLong(hex, 0, 16, 16),
+            Long.parseUnsignedLong(hex, 16, 32, 16),
+            Integer.parseUnsignedInt(hex, 32, 40, 16));
+    }
+
+    public static AddressKey read(ByteBuffer buffer, int offset) {
+        return new AddressKey(buffer.getLong(offset), buffer.getLong(offset + 8), buffer.getInt(offset + 16));
+    }
+
+    public String toHex() {
+        HexFormat hex = HexFormat.of();
+        return "0x" + hex.toHexDigits(high) + hex.toHexDigits(middle) + hex.toHexDigits(low);
+    }
+
+    @Override
+    public void write(ByteBuffer buffer, int offset) {
+        buffer.putLong(offset, high).putLong(offset + 8, middle).putInt(offset + 16, low);
+    }
+
+    @Override
+    public boolean matches(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset) == high && buffer.getLong(offset + 8) == middle
+            && buffer.getInt(offset + 16) == low;
+    }
+
+    @Override
+    public String toString() {
+        return toHex();
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.demo.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Addresses we track closely, kept in an off-heap index so very large
+ * watchlists cost a few dozen bytes per address and nothing at GC time.
+ */
+@Component
+public class AddressWatchlist {
+
+    private final OffHeapKeyIndex<AddressKey> addresses = OffHeapKeyIndex.forAddresses(1024);
+
+    public boolean add(String address) {
+        return addresses.put(AddressKey.of(address), System.currentTimeMillis());
+    }
+
+    public boolean remove(String address) {
+        return addresses.remove(AddressKey.of(address));
+    }
+
+    public boolean contains(String address) {
+        return address != null && contains(AddressKey.of(address));
+    }
+
+    public boolean contains(AddressKey address) {
+        return addresses.contains(address);
+    }
+
+    public boolean isEmpty() {
+        return addresses.size() == 0;
+    }
+
+    public int size() {
+        return addresses.size();
+    }
+
+    public List<String> list() {
+        List<String> result = new ArrayList<>(addresses.size());
+        addresses.forEach((address, addedAt) -> result.add(address.toHex()));
+        return result;
+    }
+}
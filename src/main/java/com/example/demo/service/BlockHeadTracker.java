@@ -0,0 +1,146 @@
+package com.example.demo.service;
+
+import com.example.demo.config.Web3jConfig;
+import io.reactivex.disposables.Disposable;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.methods.response.EthBlock;
+import org.web3j.protocol.websocket.WebSocketService;
+import org.web3j.protocol.websocket.events.NewHead;
+import org.web3j.utils.Numeric;
+
+import java.math.BigInteger;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Follows the chain head through a WebSocket {@code newHeads} subscription
+ * when {@code ethereum.head.ws-url} is set, polling the latest block header
+ * whenever the subscription is absent or has gone quiet.
+ */
+@Slf4j
+@Component
+public class BlockHeadTracker {
+
+    private final Web3j web3j;
+    private final Web3jConfig.Head config;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ScheduledExecutorService scheduler =
+        Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("head-tracker-"));
+
+    private volatile BigInteger head = BigInteger.ZERO;
+    private volatile String headHash;
+    private volatile long lastHeadAt;
+    private volatile long lastConnectAttemptAt;
+    private volatile WebSocketService webSocketService;
+    private volatile Disposable subscription;
+
+    public BlockHeadTracker(Web3j web3j, Web3jConfig web3jConfig, ApplicationEventPublisher eventPublisher) {
+        this.web3j = web3j;
+        this.config = web3jConfig.getHead();
+        this.eventPublisher = eventPublisher;
+    }
+
+    public BigInteger currentBlock() {
+        return head;
+    }
+
+    public boolean hasHead() {
+        return head.signum() > 0;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::tick, 0, config.getPollIntervalMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void tick() {
+        try {
+            if (StringUtils.hasText(config.getWsUrl()) && subscription == null
+                    && System.currentTimeMillis() - lastConnectAttemptAt >= config.getReconnectIntervalMillis()) {
+                subscribe();
+            }
+            boolean subscriptionQuiet = System.currentTimeMillis() - lastHeadAt > config.getPollIntervalMillis() * 3;
+            if (subscription == null || subscriptionQuiet) {
+                poll();
+            }
+        } catch (Exception e) {
+            log.warn("Failed to refresh chain head: {}", e.getMessage());
+        }
+    }
+
+    private void subscribe() {
+        lastConnectAttemptAt = System.currentTimeMillis();
+        try {
+            WebSocketService service = new WebSocketService(config.getWsUrl(), false);
+            service.connect();
+            webSocketService = service;
+            subscription = Web3j.build(service).newHeadsNotifications().subscribe(
+                notification -> {
+                    NewHead newHead = notification.getParams().getResult();
+                    onHead(Numeric.decodeQuantity(newHead.getNumber()), newHead.getHash(), newHead.getParentHash());
+                },
+                error -> {
+                    log.warn("newHeads subscription failed, falling back to polling: {}", error.getMessage());
+                    closeSubscription();
+                });
+            log.info("Subscribed to newHeads");
+        } catch (Exception e) {
+            log.warn("Could not subscribe to newHeads, polling instead: {}", e.getMessage());
+            closeSubscription();
+        }
+    }
+
+    private void poll() throws Exception {
+        EthBlock.Block block = web3j.ethGetBlockByNumber(DefaultBlockParameterName.LATEST, false).send().getBlock();
+        if (block != null) {
+            onHead(block.getNumber(), block.getHash(), block.getParentHash());
+        }
+    }
+
+    private synchronized void onHead(BigInteger number, String hash, String parentHash) {
+        lastHeadAt = System.currentTimeMillis();
+        int direction = number.compareTo(head);
+        // Lower heights come from lagging nodes; only a different hash at the same height is a reorg
+        if (direction < 0 || (direction == 0 && Objects.equals(hash, headHash))) {
+            return;
+        }
+        boolean reorg = hasHead() && (direction == 0
+            || (number.equals(head.add(BigInteger.ONE)) && !Objects.equals(parentHash, headHash)));
+        head = number;
+        headHash = hash;
+        if (reorg) {
+            log.info("Chain reorganisation detected at block {}", number);
+        }
+        eventPublisher.publishEvent(new NewHeadEvent(number, hash, parentHash, reorg));
+    }
+
+    private void closeSubscription() {
+        Disposable current = subscription;
+        subscription = null;
+        if (current != null) {
+            current.dispose();
+        }
+        WebSocketService service = webSocketService;
+        webSocketService = null;
+        if (service != null) {
+            service.close();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        closeSubscription();
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.demo.service;
+
+import com.example.demo.config.Web3jConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.web3j.protocol.core.methods.response.EthBlock;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Writes a block range as NDJSON, one block per line and in order, while a
+ * bounded window of upcoming blocks is fetched in parallel. A slow client
+ * stalls the writer, which stops new fetches, so memory stays at one window.
+ */
+@Slf4j
+@Component
+public class BlockRangeStreamer {
+
+    private final IWeb3jService web3jService;
+    private final ObjectMapper objectMapper;
+    private final Web3jConfig.BlockRange config;
+    private final ExecutorService executor;
+
+    public BlockRangeStreamer(IWeb3jService web3jService, ObjectMapper objectMapper, Web3jConfig web3jConfig) {
+        this.web3jService = web3jService;
+        this.objectMapper = objectMapper;
+        this.config = web3jConfig.getBlockRange();
+        this.executor = Executors.newFixedThreadPool(config.getParallelism(), new CustomizableThreadFactory("block-range-"));
+    }
+
+    public void stream(BigInteger from, BigInteger to, boolean hashesOnly, OutputStream out) throws IOException {
+        Deque<CompletableFuture<EthBlock.Block>> window = new ArrayDeque<>(config.getWindow());
+        BigInteger next = from;
+        while (next.compareTo(to) <= 0 && window.size() < config.getWindow()) {
+            window.add(fetch(next));
+            next = next.add(BigInteger.ONE);
+        }
+
+        try {
+            while (!window.isEmpty()) {
+                EthBlock.Block block = window.poll().join();
+                if (block == null) {
+                    log.debug("Block range stream stopped at a block that does not exist yet");
+                    break;
+                }
+                if (next.compareTo(to) <= 0) {
+                    window.add(fetch(next));
+                    next = next.add(BigInteger.ONE);
+                }
+
+                out.write(objectMapper.writeValueAsBytes(hashesOnly ? hashesOnly(block) : block));
+                out.write('\n');
+                // Flush whenever the writer would otherwise wait on the next fetch
+                if (window.isEmpty() || !window.peek().isDone()) {
+                    out.flush();
+                }
+            }
+            out.flush();
+        } finally {
+            window.forEach(future -> future.cancel(false));
+        }
+    }
+
+    private CompletableFuture<EthBlock.Block> fetch(BigInteger blockNumber) {
+        // Goes through the service so finalized blocks come from the block cache
+        return CompletableFuture.supplyAsync(() -> web3jService.getBlockByNumber(blockNumber), executor);
+    }
+
+    private Map<String, Object> hashesOnly(EthBlock.Block block) {
+        List<Object> transactions = block.getTransactions().stream()
+            .map(tx -> tx instanceof EthBlock.TransactionObject object ? object.getHash() : tx.get())
+            .toList();
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("number", block.getNumber());
+        summary.put("hash", block.getHash());
+        summary.put("parentHash", block.getParentHash());
+        summary.put("timestamp", block.getTimestamp());
+        summary.put("transactions", transactions);
+        return summary;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.demo.service;
+
+/**
+ * Cache key for chain state that is only valid at the block it was read at.
+ */
+public record BlockScopedKey(Object key, long blockNumber) {
+}
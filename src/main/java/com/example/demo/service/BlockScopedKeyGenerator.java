@@ -0,0 +1,25 @@
+package com.example.demo.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.cache.interceptor.SimpleKeyGenerator;
+import org.springframework.stereotype.Component;
+import org.web3j.crypto.WalletUtils;
+
+import java.lang.reflect.Method;
+
+@Component("blockScopedKeyGenerator")
+@RequiredArgsConstructor
+public class BlockScopedKeyGenerator implements KeyGenerator {
+
+    private final BlockHeadTracker headTracker;
+
+    @Override
+    public Object generate(Object target, Method method, Object... params) {
+        // Single-address lookups are keyed by the compact form, which also ignores hex case
+        Object key = params.length == 1 && params[0] instanceof String address && WalletUtils.isValidAddress(address)
+            ? AddressKey.of(address)
+            : SimpleKeyGenerator.generateKey(params);
+        return new BlockScopedKey(key, headTracker.currentBlock().longValue());
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.demo.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Drops chain-state cache entries that were read at a block other than the
+ * new head, leaving entries minted at the current head in place.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ChainStateCacheEvictor {
+
+    public static final List<String> CHAIN_STATE_CACHES = List.of("ethBalance", "transactionCount", "gasPrice");
+
+    private final CacheManager cacheManager;
+
+    @EventListener
+    public void onNewHead(NewHeadEvent event) {
+        long head = event.blockNumber().longValue();
+        for (String name : CHAIN_STATE_CACHES) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null && cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache) {
+                // A reorg at the same height invalidates entries keyed at that height too
+                nativeCache.asMap().keySet().removeIf(key -> key instanceof BlockScopedKey scoped
+                    && (scoped.blockNumber() != head || event.reorg()));
+            }
+        }
+        log.debug("Evicted chain-state cache entries older than block {}", head);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.demo.service;
+
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import org.web3j.crypto.Credentials;
+
+import java.util.Optional;
+
+/**
+ * Looks up configured hot wallets first, then wallets the caller generated.
+ */
+@Primary
+@Component
+public class CompositeSignerRegistry implements SignerRegistry {
+
+    private final ConfiguredSignerRegistry configured;
+    private final KeystoreStore keystores;
+
+    public CompositeSignerRegistry(ConfiguredSignerRegistry configured, KeystoreStore keystores) {
+        this.configured = configured;
+        this.keystores = keystores;
+    }
+
+    @Override
+    public Optional<Credentials> credentialsFor(String address, String caller) {
+        Optional<Credentials> credentials = configured.credentialsFor(address, caller);
+        return credentials.isPresent() ? credentials : keystores.credentialsFor(address, caller);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.demo.service;
+
+import com.example.demo.config.Web3jConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.web3j.crypto.Credentials;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Signs for the hot wallets listed under {@code ethereum.send.private-keys},
+ * on behalf of the users listed under {@code ethereum.send.operators} only.
+ */
+@Slf4j
+@Component
+public class ConfiguredSignerRegistry implements SignerRegistry {
+
+    private final Map<AddressKey, Credentials> credentials = new ConcurrentHashMap<>();
+    private final Set<String> operators;
+
+    public ConfiguredSignerRegistry(Web3jConfig web3jConfig) {
+        for (String privateKey : web3jConfig.getSend().getPrivateKeys()) {
+            Credentials key = Credentials.create(privateKey);
+            credentials.put(AddressKey.of(key.getAddress()), key);
+        }
+        this.operators = Set.copyOf(web3jConfig.getSend().getOperators());
+        log.info("Loaded {} configured signing keys for {} operators", credentials.size(), operators.size());
+    }
+
+    @Override
+    public Optional<Credentials> credentialsFor(String address, String caller) {
+        if (caller == null || !operators.contains(caller)) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(credentials.get(AddressKey.of(address)));
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.demo.service;
+
+/**
+ * Outcome of one event indexing run. {@code skippedChunks} counts chunks
+ * ruled out by the header logsBloom without calling eth_getLogs.
+ */
+public record EventIndexResult(String address, String topic0, long fromBlock, long toBlock,
+                               long logs, long chunks, long skippedChunks, long elapsedMillis) {
+}
@@ -0,0 +1,334 @@
+package com.example.demo.service;
+
+import com.example.demo.config.Web3jConfig;
+import com.example.demo.entity.IndexedLog;
+import com.example.demo.exception.Web3jException;
+import com.example.demo.repository.IndexedLogRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import org.web3j.crypto.WalletUtils;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.request.EthFilter;
+import org.web3j.protocol.core.methods.response.EthBlock;
+import org.web3j.protocol.core.methods.response.EthLog;
+import org.web3j.protocol.core.methods.response.Log;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Indexes the logs of one (address, topic0) pair over a block range into
+ * {@link IndexedLog}. The range is cut into chunks that halve when the node
+ * refuses a result set and double while they come back sparse; several
+ * chunks are in flight at once. Small chunks are first checked against the
+ * header logsBloom so empty stretches cost no eth_getLogs at all; chunks
+ * start at that size and only grow past it once eth_getLogs is actually
+ * called and comes back sparse.
+ */
+@Slf4j
+@Component
+public class EventIndexer {
+
+    // Fragments of the errors providers return when a range holds too many logs
+    private static final List<String> RESULT_LIMIT_ERRORS = List.of(
+        "more than", "too many", "limit exceeded", "response size", "range is too", "range too large",
+        "query timeout", "exceed");
+    private static final int LIMIT_EXCEEDED_CODE = -32005;
+    // indexChunk result when the blooms ruled out every block of the chunk
+    private static final int SKIPPED = -1;
+
+    private final Web3j web3j;
+    private final Web3jBatchDispatcher batchDispatcher;
+    private final BlockHeadTracker headTracker;
+    private final IndexedLogRepository logRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Web3jConfig.Events config;
+    private final int confirmations;
+    private final ExecutorService executor;
+
+    public EventIndexer(Web3j web3j, Web3jBatchDispatcher batchDispatcher, BlockHeadTracker headTracker,
+                        IndexedLogRepository logRepository, PlatformTransactionManager transactionManager,
+                        Web3jConfig web3jConfig) {
+        this.web3j = web3j;
+        this.batchDispatcher = batchDispatcher;
+        this.headTracker = headTracker;
+        this.logRepository = logRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.config = web3jConfig.getEvents();
+        this.confirmations = web3jConfig.getIndexer().getConfirmations();
+        this.executor = Executors.newFixedThreadPool(config.getParallelism(), new CustomizableThreadFactory("event-indexer-"));
+    }
+
+    public CompletableFuture<EventIndexResult> index(String address, String topic0, long fromBlock, long toBlock) {
+        if (!WalletUtils.isValidAddress(address) || !isTopic(topic0) || fromBlock < 0 || toBlock < fromBlock) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException(
+                "Expected a contract address, a 32-byte topic0 and 0 <= fromBlock <= toBlock"));
+        }
+        // Only finalized blocks, so indexed logs never need to be reorganised
+        long finalized = headTracker.hasHead()
+            ? headTracker.currentBlock().longValueExact() - confirmations
+            : Long.MAX_VALUE;
+        Job job = new Job(address.toLowerCase(), topic0.toLowerCase(), fromBlock, Math.min(toBlock, finalized));
+        if (job.toBlock < job.fromBlock) {
+            return CompletableFuture.completedFuture(job.result());
+        }
+
+        List<CompletableFuture<Void>> workers = new ArrayList<>(config.getParallelism());
+        for (int i = 0; i < config.getParallelism(); i++) {
+            workers.add(CompletableFuture.runAsync(() -> work(job), executor));
+        }
+        return CompletableFuture.allOf(workers.toArray(new CompletableFuture[0]))
+            .thenApply(v -> {
+                EventIndexResult result = job.result();
+                log.debug("Indexed {}", result);
+                return result;
+            });
+    }
+
+    public EventLogPage query(String address, String topic0, String topic1, String topic2,
+                              long fromBlock, long toBlock, String cursor, int limit) {
+        if (!WalletUtils.isValidAddress(address) || !isTopic(topic0)) {
+            throw new IllegalArgumentException("Expected a contract address and a 32-byte topic0");
+        }
+        int size = Math.max(1, Math.min(limit, config.getMaxPageSize()));
+        long afterBlock = fromBlock - 1;
+        int afterLogIndex = -1;
+        if (StringUtils.hasText(cursor)) {
+            String[] parts = cursor.split(":");
+            try {
+                afterBlock = Long.parseLong(parts[0]);
+                afterLogIndex = Integer.parseInt(parts[1]);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+        }
+
+        List<IndexedLog> logs = logRepository.findPage(address.toLowerCase(), topic0.toLowerCase(),
+            lowerOrNull(topic1), lowerOrNull(topic2), fromBlock, toBlock, afterBlock, afterLogIndex,
+            PageRequest.of(0, size));
+        String nextCursor = null;
+        if (logs.size() == size) {
+            IndexedLog last = logs.get(size - 1);
+            nextCursor = last.getBlockNumber() + ":" + last.getLogIndex();
+        }
+        return new EventLogPage(logs, nextCursor);
+    }
+
+    private void work(Job job) {
+        long[] range;
+        while ((range = job.next()) != null) {
+            long blocks = range[1] - range[0] + 1;
+            try {
+                int found = indexChunk(job, range[0], range[1]);
+                if (found == SKIPPED) {
+                    // Growing would only switch the bloom check off for the next empty stretch
+                    continue;
+                }
+                if (found < config.getTargetLogsPerChunk() / 4) {
+                    job.chunkSize.set((int) Math.min(config.getMaxChunkSize(), Math.max(blocks * 2, job.chunkSize.get())));
+                } else if (found > config.getTargetLogsPerChunk()) {
+                    job.chunkSize.set((int) Math.max(config.getMinChunkSize(), blocks / 2));
+                }
+            } catch (ResultLimitException e) {
+                if (blocks <= config.getMinChunkSize()) {
+                    job.failed = true;
+                    throw new Web3jException("Logs of block " + range[0] + " exceed the node's result limit", e);
+                }
+                long middle = range[0] + blocks / 2;
+                job.pending.addFirst(new long[]{middle, range[1]});
+                job.pending.addFirst(new long[]{range[0], middle - 1});
+                job.chunkSize.set((int) Math.max(config.getMinChunkSize(), blocks / 2));
+                log.debug("Splitting blocks {} to {}: {}", range[0], range[1], e.getMessage());
+            } catch (RuntimeException e) {
+                job.failed = true;
+                throw e;
+            }
+        }
+    }
+
+    private int indexChunk(Job job, long from, long to) {
+        long fetchFrom = from;
+        long fetchTo = to;
+        if (to - from + 1 <= config.getBloomCheckMaxBlocks()) {
+            long[] span = bloomSpan(job, from, to);
+            if (span == null) {
+                job.chunks.incrementAndGet();
+                job.skippedChunks.incrementAndGet();
+                store(job, from, to, List.of());
+                return SKIPPED;
+            }
+            fetchFrom = span[0];
+            fetchTo = span[1];
+        }
+
+        EthFilter filter = new EthFilter(
+            DefaultBlockParameter.valueOf(BigInteger.valueOf(fetchFrom)),
+            DefaultBlockParameter.valueOf(BigInteger.valueOf(fetchTo)),
+            job.address);
+        filter.addSingleTopic(job.topic0);
+
+        EthLog response;
+        try {
+            response = web3j.ethGetLogs(filter).send();
+        } catch (InterruptedIOException e) {
+            // Timeouts on wide ranges are the other way nodes refuse a large result
+            throw new ResultLimitException(e.getMessage());
+        } catch (IOException e) {
+            throw new Web3jException("Failed to get logs for blocks " + fetchFrom + " to " + fetchTo, e);
+        }
+        if (response.hasError()) {
+            if (isResultLimit(response.getError())) {
+                throw new ResultLimitException(response.getError().getMessage());
+            }
+            throw new Web3jException(response.getError().getMessage());
+        }
+
+        List<IndexedLog> rows = new ArrayList<>(response.getLogs().size());
+        for (EthLog.LogResult<?> result : response.getLogs()) {
+            rows.add(toRow((Log) result.get()));
+        }
+        store(job, from, to, rows);
+        job.chunks.incrementAndGet();
+        job.logs.addAndGet(rows.size());
+        return rows.size();
+    }
+
+    // Narrows a chunk to the blocks whose bloom may hold the event, or null if none can
+    private long[] bloomSpan(Job job, long from, long to) {
+        List<CompletableFuture<EthBlock>> headers = new ArrayList<>();
+        for (long number = from; number <= to; number++) {
+            headers.add(batchDispatcher.submit(
+                web3j.ethGetBlockByNumber(DefaultBlockParameter.valueOf(BigInteger.valueOf(number)), false)));
+        }
+        long first = -1;
+        long last = -1;
+        for (int i = 0; i < headers.size(); i++) {
+            EthBlock.Block header = headers.get(i).join().getBlock();
+            byte[] bloom = header == null ? null : LogsBloom.parse(header.getLogsBloom());
+            // Without a bloom we cannot rule the block out
+            if (bloom == null || (LogsBloom.mightContain(bloom, job.address) && LogsBloom.mightContain(bloom, job.topic0))) {
+                if (first < 0) {
+                    first = from + i;
+                }
+                last = from + i;
+            }
+        }
+        return first < 0 ? null : new long[]{first, last};
+    }
+
+    // Deleting first keeps re-indexing a range idempotent
+    private void store(Job job, long from, long to, List<IndexedLog> rows) {
+        transactionTemplate.executeWithoutResult(status -> {
+            logRepository.deleteRange(job.address, job.topic0, from, to);
+            logRepository.saveAll(rows);
+        });
+    }
+
+    private static IndexedLog toRow(Log entry) {
+        List<String> topics = entry.getTopics();
+        return IndexedLog.builder()
+            .address(entry.getAddress().toLowerCase())
+            .topic0(topic(topics, 0))
+            .topic1(topic(topics, 1))
+            .topic2(topic(topics, 2))
+            .topic3(topic(topics, 3))
+            .data(entry.getData())
+            .blockNumber(entry.getBlockNumber().longValueExact())
+            .transactionHash(entry.getTransactionHash())
+            .logIndex(entry.getLogIndex().intValueExact())
+            .build();
+    }
+
+    private static String topic(List<String> topics, int index) {
+        return topics.size() > index ? topics.get(index).toLowerCase() : null;
+    }
+
+    private static boolean isResultLimit(Response.Error error) {
+        String message = error.getMessage() == null ? "" : error.getMessage().toLowerCase(Locale.ROOT);
+        return error.getCode() == LIMIT_EXCEEDED_CODE || RESULT_LIMIT_ERRORS.stream().anyMatch(message::contains);
+    }
+
+    private static boolean isTopic(String topic) {
+        return topic != null && topic.matches("^0x[0-9a-fA-F]{64}$");
+    }
+
+    private static String lowerOrNull(String value) {
+        return StringUtils.hasText(value) ? value.toLowerCase() : null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private final class Job {
+        final String address;
+        final String topic0;
+        final long fromBlock;
+        final long toBlock;
+        final long startedAt = System.currentTimeMillis();
+        final AtomicInteger chunkSize = new AtomicInteger(config.getInitialChunkSize());
+        // Halves of split chunks, served before new ranges
+        final Deque<long[]> pending = new ConcurrentLinkedDeque<>();
+        final AtomicLong logs = new AtomicLong();
+        final AtomicLong chunks = new AtomicLong();
+        final AtomicLong skippedChunks = new AtomicLong();
+        volatile boolean failed;
+        private long cursor;
+
+        Job(String address, String topic0, long fromBlock, long toBlock) {
+            this.address = address;
+            this.topic0 = topic0;
+            this.fromBlock = fromBlock;
+            this.toBlock = toBlock;
+            this.cursor = fromBlock;
+        }
+
+        synchronized long[] next() {
+            if (failed) {
+                return null;
+            }
+            long[] split = pending.pollFirst();
+            if (split != null) {
+                return split;
+            }
+            if (cursor > toBlock) {
+                return null;
+            }
+            long end = Math.min(cursor + chunkSize.get() - 1, toBlock);
+            long[] range = {cursor, end};
+            cursor = end + 1;
+            return range;
+        }
+
+        EventIndexResult result() {
+            return new EventIndexResult(address, topic0, fromBlock, toBlock, logs.get(), chunks.get(),
+                skippedChunks.get(), System.currentTimeMillis() - startedAt);
+        }
+    }
+
+    private static class ResultLimitException extends RuntimeException {
+        ResultLimitException(String message) {
+            super(message);
+        }
+    }
+}
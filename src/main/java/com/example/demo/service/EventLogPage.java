@@ -0,0 +1,11 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.IndexedLog;
+
+import java.util.List;
+
+/**
+ * One page of indexed logs, oldest first. {@code nextCursor} is null on the last page.
+ */
+public record EventLogPage(List<IndexedLog> logs, String nextCursor) {
+}
@@ -0,0 +1,270 @@
+package com.example.demo.service;
+
+import com.example.demo.config.Web3jConfig;
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonValue;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.web3j.protocol.ObjectMapperFactory;
+import org.web3j.protocol.core.methods.response.EthBlock;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Disk-backed store for chain data that can no longer change. Values are
+ * appended to fixed-size memory-mapped segment files; an append-only index
+ * file maps each key to its segment and offset so the store is warm again
+ * right after a restart. Once {@code max-segments} files exist the oldest
+ * segment is recycled: its entries are dropped and it is written over from
+ * the start.
+ */
+@Slf4j
+@Component
+public class FinalizedChainDataStore {
+
+    private static final String INDEX_FILE = "index.dat";
+    // Each segment starts with the sequence number it currently holds; 0 marks a free segment
+    private static final int HEADER_BYTES = Integer.BYTES;
+
+    private final Web3jConfig.FinalizedStore config;
+    // Objects are written in their JSON-RPC shape (fields) and read back with web3j's own mapper
+    private final ObjectMapper writer = new ObjectMapper()
+        .setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE)
+        .setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY)
+        .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+        .addMixIn(EthBlock.TransactionHash.class, TransactionHashMixin.class);
+    private final ObjectMapper reader = ObjectMapperFactory.getObjectMapper();
+
+    // Location is the segment sequence in the high 32 bits and the record offset in the low 32 bits
+    private final ConcurrentMap<String, Long> index = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, MappedByteBuffer> segments = new ConcurrentHashMap<>();
+    private final Deque<MappedByteBuffer> freeSegments = new ArrayDeque<>();
+    private int segmentFiles;
+    private Path directory;
+    private FileChannel indexChannel;
+    private int currentSequence;
+    private int writePosition;
+
+    public FinalizedChainDataStore(Web3jConfig web3jConfig) {
+        this.config = web3jConfig.getFinalizedStore();
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!config.isEnabled()) {
+            return;
+        }
+        directory = Paths.get(config.getDirectory());
+        Files.createDirectories(directory);
+        loadIndex();
+        indexChannel = openIndex();
+        log.info("Opened finalized chain data store at {} with {} entries in {} segments",
+            directory, index.size(), segments.size());
+    }
+
+    public <T> T get(String key, Class<T> type) {
+        Long location = index.get(key);
+        if (location == null) {
+            return null;
+        }
+        int sequence = (int) (location >>> 32);
+        MappedByteBuffer segment = segments.get(sequence);
+        if (segment == null) {
+            return null;
+        }
+        ByteBuffer buffer = segment.duplicate();
+        int offset = (int) (location & 0xFFFFFFFFL);
+        int length = buffer.getInt(offset);
+        // The segment may be recycled under a reader; the header tells whether it still holds this sequence
+        if (buffer.getInt(0) != sequence || length < 0 || length > buffer.capacity() - offset - Integer.BYTES) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(offset + Integer.BYTES, bytes);
+        if (buffer.getInt(0) != sequence) {
+            return null;
+        }
+        try {
+            return reader.readValue(bytes, type);
+        } catch (IOException e) {
+            log.warn("Dropping unreadable finalized entry {}", key, e);
+            index.remove(key);
+            return null;
+        }
+    }
+
+    public boolean contains(String key) {
+        return index.containsKey(key);
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    public synchronized void put(String key, Object value) {
+        if (!config.isEnabled() || index.containsKey(key)) {
+            return;
+        }
+        try {
+            byte[] bytes = writer.writeValueAsBytes(value);
+            int recordSize = Integer.BYTES + bytes.length;
+            if (HEADER_BYTES + recordSize > config.getSegmentSizeBytes()) {
+                log.debug("Entry {} of {} bytes does not fit in a segment", key, bytes.length);
+                return;
+            }
+            if (segments.isEmpty() || writePosition + recordSize > config.getSegmentSizeBytes()) {
+                nextSegment();
+            }
+
+            ByteBuffer buffer = segments.get(currentSequence).duplicate();
+            buffer.position(writePosition);
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+            long location = ((long) currentSequence << 32) | writePosition;
+            writePosition += recordSize;
+
+            appendIndexEntry(indexChannel, key, location);
+            index.put(key, location);
+        } catch (IOException e) {
+            log.error("Failed to store finalized entry {}", key, e);
+        }
+    }
+
+    // A free segment, a new file while under max-segments, or else the oldest segment
+    private void nextSegment() throws IOException {
+        MappedByteBuffer buffer = freeSegments.poll();
+        if (buffer == null && segmentFiles < config.getMaxSegments()) {
+            buffer = mapSegment(segmentFiles++);
+        }
+        if (buffer == null) {
+            int oldest = Collections.min(segments.keySet());
+            buffer = segments.remove(oldest);
+            index.values().removeIf(location -> (int) (location >>> 32) == oldest);
+            rewriteIndex();
+            log.info("Finalized chain data store is full, recycling segment {} ({} entries remain)",
+                oldest, index.size());
+        }
+        int sequence = currentSequence + 1;
+        buffer.putInt(0, sequence);
+        segments.put(sequence, buffer);
+        currentSequence = sequence;
+        writePosition = HEADER_BYTES;
+    }
+
+    // Replaces the index file with the live entries so recycled ones are not loaded again
+    private void rewriteIndex() throws IOException {
+        Path rewritten = directory.resolve(INDEX_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(rewritten, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Map.Entry<String, Long> entry : index.entrySet()) {
+                appendIndexEntry(channel, entry.getKey(), entry.getValue());
+            }
+            channel.force(true);
+        }
+        indexChannel.close();
+        Files.move(rewritten, directory.resolve(INDEX_FILE),
+            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        indexChannel = openIndex();
+    }
+
+    private static void appendIndexEntry(FileChannel channel, String key, long location) throws IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer entry = ByteBuffer.allocate(Short.BYTES + keyBytes.length + Long.BYTES);
+        entry.putShort((short) keyBytes.length).put(keyBytes).putLong(location).flip();
+        while (entry.hasRemaining()) {
+            channel.write(entry);
+        }
+    }
+
+    private void loadIndex() throws IOException {
+        while (Files.exists(segmentPath(segmentFiles))) {
+            MappedByteBuffer buffer = mapSegment(segmentFiles++);
+            int sequence = buffer.getInt(0);
+            if (sequence == 0 || segments.putIfAbsent(sequence, buffer) != null) {
+                freeSegments.add(buffer);
+            }
+        }
+        currentSequence = segments.keySet().stream().max(Integer::compare).orElse(0);
+        writePosition = HEADER_BYTES;
+
+        Path indexFile = directory.resolve(INDEX_FILE);
+        if (!Files.exists(indexFile)) {
+            return;
+        }
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(indexFile));
+             DataInputStream data = new DataInputStream(in)) {
+            while (true) {
+                byte[] keyBytes = new byte[data.readUnsignedShort()];
+                data.readFully(keyBytes);
+                long location = data.readLong();
+                int sequence = (int) (location >>> 32);
+                MappedByteBuffer segment = segments.get(sequence);
+                if (segment == null) {
+                    // Written to a segment that has since been recycled
+                    continue;
+                }
+                index.put(new String(keyBytes, StandardCharsets.UTF_8), location);
+                if (sequence == currentSequence) {
+                    int offset = (int) (location & 0xFFFFFFFFL);
+                    writePosition = Math.max(writePosition, offset + Integer.BYTES + segment.getInt(offset));
+                }
+            }
+        } catch (EOFException e) {
+            // End of index, a torn trailing entry is simply ignored
+        }
+    }
+
+    private FileChannel openIndex() throws IOException {
+        return FileChannel.open(directory.resolve(INDEX_FILE),
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private MappedByteBuffer mapSegment(int segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(segment),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, config.getSegmentSizeBytes());
+        }
+    }
+
+    private Path segmentPath(int segment) {
+        return directory.resolve(String.format("segment-%05d.dat", segment));
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        segments.values().forEach(MappedByteBuffer::force);
+        if (indexChannel != null) {
+            indexChannel.force(true);
+            indexChannel.close();
+        }
+    }
+
+    private abstract static class TransactionHashMixin {
+        @JsonValue
+        abstract String get();
+    }
+}
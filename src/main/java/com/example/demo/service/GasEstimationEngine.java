@@ -0,0 +1,93 @@
+package com.example.demo.service;
+
+import com.example.demo.config.Web3jConfig;
+import com.example.demo.exception.Web3jException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.methods.request.Transaction;
+import org.web3j.protocol.core.methods.response.EthEstimateGas;
+import org.web3j.protocol.core.methods.response.EthGetCode;
+
+import java.math.BigInteger;
+
+/**
+ * Gas estimates for value transfers. A transfer to an account without code
+ * always costs 21000 gas, so only contract targets reach eth_estimateGas;
+ * code lookups and estimates are both cached against the head block.
+ */
+@Slf4j
+@Component
+public class GasEstimationEngine {
+
+    public static final BigInteger TRANSFER_GAS = BigInteger.valueOf(21000);
+
+    private final Web3j web3j;
+    private final Web3jBatchDispatcher batchDispatcher;
+    private final BlockHeadTracker headTracker;
+    private final Web3jConfig.GasEstimation config;
+    // Deployed code is permanent; an empty account can gain code, so those entries age out by block
+    private final Cache<AddressKey, CodeCheck> codeChecks;
+    private final Cache<EstimateKey, BigInteger> estimates;
+
+    public GasEstimationEngine(Web3j web3j, Web3jBatchDispatcher batchDispatcher, BlockHeadTracker headTracker,
+                               Web3jConfig web3jConfig) {
+        this.web3j = web3j;
+        this.batchDispatcher = batchDispatcher;
+        this.headTracker = headTracker;
+        this.config = web3jConfig.getGasEstimation();
+        this.codeChecks = Caffeine.newBuilder().maximumSize(config.getCodeCacheSize()).build();
+        this.estimates = Caffeine.newBuilder().maximumSize(config.getEstimateCacheSize()).build();
+    }
+
+    public BigInteger estimate(String from, String to, BigInteger value) {
+        long block = headTracker.currentBlock().longValue();
+        if (to == null) {
+            return estimateOnNode(from, null, value);
+        }
+        if (!isContract(to, block)) {
+            return TRANSFER_GAS;
+        }
+        // Whether any value is sent can change the path a contract takes, its amount rarely does
+        EstimateKey key = new EstimateKey(AddressKey.of(from), AddressKey.of(to), value.signum(), block);
+        return estimates.get(key, k -> estimateOnNode(from, to, value));
+    }
+
+    public boolean isContract(String address, long block) {
+        AddressKey key = AddressKey.of(address);
+        CodeCheck cached = codeChecks.getIfPresent(key);
+        if (cached != null && (cached.contract() || block - cached.blockNumber() < config.getEoaMaxAgeBlocks())) {
+            return cached.contract();
+        }
+        EthGetCode code = batchDispatcher.submit(web3j.ethGetCode(address, DefaultBlockParameterName.LATEST)).join();
+        boolean contract = code.getCode() != null && !code.getCode().equals("0x");
+        codeChecks.put(key, new CodeCheck(contract, block));
+        return contract;
+    }
+
+    @EventListener
+    public void onNewHead(NewHeadEvent event) {
+        long head = event.blockNumber().longValue();
+        estimates.asMap().keySet().removeIf(key -> key.blockNumber() != head || event.reorg());
+    }
+
+    // Nonce and gas price are left to the node, they do not change the gas used
+    private BigInteger estimateOnNode(String from, String to, BigInteger value) {
+        Transaction transaction = new Transaction(from, null, null, null, to, value, null);
+        EthEstimateGas response = batchDispatcher.submit(web3j.ethEstimateGas(transaction)).join();
+        if (response.getAmountUsed() == null) {
+            throw new Web3jException("Node returned no gas estimate");
+        }
+        return response.getAmountUsed();
+    }
+
+    private record CodeCheck(boolean contract, long blockNumber) {
+    }
+
+    private record EstimateKey(AddressKey from, AddressKey to, int valueClass, long blockNumber) {
+    }
+}
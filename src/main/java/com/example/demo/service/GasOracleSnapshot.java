@@ -0,0 +1,22 @@
+package com.example.demo.service;
+
+import java.math.BigInteger;
+
+/**
+ * Fee quote for the next block, in wei. {@code baseFee} is the next block's
+ * base fee; {@code gasPrice} is the legacy equivalent at the standard tip.
+ */
+public record GasOracleSnapshot(long blockNumber, BigInteger baseFee, BigInteger slowPriorityFee,
+                                BigInteger standardPriorityFee, BigInteger fastPriorityFee, long updatedAt) {
+
+    private static final BigInteger TWO = BigInteger.valueOf(2);
+
+    public BigInteger gasPrice() {
+        return baseFee.add(standardPriorityFee);
+    }
+
+    // Survives six consecutive full blocks of base fee increases
+    public BigInteger maxFeePerGas(BigInteger priorityFee) {
+        return baseFee.multiply(TWO).add(priorityFee);
+    }
+}
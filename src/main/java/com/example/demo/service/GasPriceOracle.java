@@ -0,0 +1,170 @@
+package com.example.demo.service;
+
+import com.example.demo.config.Web3jConfig;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.methods.response.EthFeeHistory;
+
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * EIP-1559 fee oracle. Keeps the last {@code ethereum.gas-oracle.blocks}
+ * blocks of eth_feeHistory in memory, extends the window on every new head
+ * and publishes an immutable snapshot, so quotes never touch the node.
+ */
+@Slf4j
+@Component
+public class GasPriceOracle {
+
+    private final Web3j web3j;
+    private final Web3jBatchDispatcher batchDispatcher;
+    private final BlockHeadTracker headTracker;
+    private final Web3jConfig.GasOracle config;
+    private final List<Double> percentiles;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("gas-oracle-"));
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+
+    // Only touched on the oracle thread
+    private final Deque<Sample> window = new ArrayDeque<>();
+    private volatile GasOracleSnapshot snapshot;
+    private volatile boolean reorgPending;
+
+    public GasPriceOracle(Web3j web3j, Web3jBatchDispatcher batchDispatcher, BlockHeadTracker headTracker,
+                          Web3jConfig web3jConfig) {
+        this.web3j = web3j;
+        this.batchDispatcher = batchDispatcher;
+        this.headTracker = headTracker;
+        this.config = web3jConfig.getGasOracle();
+        this.percentiles = List.of(config.getSlowPercentile(), config.getStandardPercentile(), config.getFastPercentile());
+    }
+
+    /**
+     * The latest snapshot, or null until the first fee history has been read.
+     */
+    public GasOracleSnapshot snapshot() {
+        return snapshot;
+    }
+
+    public boolean isWarm() {
+        return snapshot != null;
+    }
+
+    /**
+     * Runs a refresh on the oracle thread and waits for it; only used while cold.
+     */
+    public GasOracleSnapshot refreshNow() {
+        try {
+            executor.submit(this::refresh).get(config.getColdRefreshTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Cold gas oracle refresh did not complete: {}", e.getMessage());
+        }
+        return snapshot;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduleRefresh();
+    }
+
+    @EventListener
+    public void onNewHead(NewHeadEvent event) {
+        if (event.reorg()) {
+            reorgPending = true;
+        }
+        scheduleRefresh();
+    }
+
+    private void scheduleRefresh() {
+        if (config.isEnabled() && refreshScheduled.compareAndSet(false, true)) {
+            executor.execute(this::refresh);
+        }
+    }
+
+    private void refresh() {
+        refreshScheduled.set(false);
+        try {
+            BigInteger head = headTracker.hasHead()
+                ? headTracker.currentBlock()
+                : batchDispatcher.submit(web3j.ethBlockNumber()).join().getBlockNumber();
+            if (reorgPending) {
+                reorgPending = false;
+                window.clear();
+            }
+            long newest = window.isEmpty() ? -1 : window.peekLast().blockNumber();
+            if (head.longValueExact() <= newest) {
+                return;
+            }
+            int count = newest < 0 ? config.getBlocks() : (int) Math.min(config.getBlocks(), head.longValueExact() - newest);
+
+            EthFeeHistory.FeeHistory history = batchDispatcher.submit(
+                web3j.ethFeeHistory(count, DefaultBlockParameter.valueOf(head), percentiles)).join().getFeeHistory();
+            append(history);
+            publish(head.longValueExact(), history);
+        } catch (Exception e) {
+            log.warn("Failed to refresh gas oracle: {}", e.getMessage());
+        }
+    }
+
+    private void append(EthFeeHistory.FeeHistory history) {
+        long oldest = history.getOldestBlock().longValueExact();
+        if (!window.isEmpty() && oldest != window.peekLast().blockNumber() + 1) {
+            window.clear();
+        }
+        List<BigInteger> baseFees = history.getBaseFeePerGas();
+        List<List<BigInteger>> rewards = history.getReward();
+        // baseFeePerGas has one more entry than blocks: the base fee of the next block
+        for (int i = 0; i < baseFees.size() - 1; i++) {
+            window.addLast(new Sample(oldest + i, history.getGasUsedRatio().get(i),
+                rewards == null || i >= rewards.size() ? List.of() : rewards.get(i)));
+        }
+        while (window.size() > config.getBlocks()) {
+            window.removeFirst();
+        }
+    }
+
+    private void publish(long head, EthFeeHistory.FeeHistory history) {
+        List<BigInteger> baseFees = history.getBaseFeePerGas();
+        BigInteger nextBaseFee = baseFees.get(baseFees.size() - 1);
+        snapshot = new GasOracleSnapshot(head, nextBaseFee,
+            medianReward(0), medianReward(1), medianReward(2), System.currentTimeMillis());
+    }
+
+    // Empty blocks report zero rewards and would drag every tier to zero
+    private BigInteger medianReward(int percentile) {
+        List<BigInteger> values = new ArrayList<>(window.size());
+        for (Sample sample : window) {
+            if (sample.gasUsedRatio() > 0 && sample.rewards().size() > percentile) {
+                values.add(sample.rewards().get(percentile));
+            }
+        }
+        if (values.isEmpty()) {
+            return BigInteger.valueOf(config.getMinPriorityFeeWei());
+        }
+        values.sort(null);
+        return values.get(values.size() / 2).max(BigInteger.valueOf(config.getMinPriorityFeeWei()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private record Sample(long blockNumber, double gasUsedRatio, List<BigInteger> rewards) {
+    }
+}
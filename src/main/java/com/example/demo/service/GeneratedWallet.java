@@ -0,0 +1,9 @@
+package com.example.demo.service;
+
+import org.web3j.crypto.WalletFile;
+
+/**
+ * A freshly generated key, already encrypted into a keystore under its password.
+ */
+public record GeneratedWallet(String address, String password, WalletFile keystore) {
+}
@@ -0,0 +1,52 @@
+package com.example.demo.service;
+
+import org.web3j.utils.Numeric;
+
+import java.nio.ByteBuffer;
+import java.util.HexFormat;
+
+/**
+ * A 32-byte block or transaction hash held as four longs.
+ */
+public record HashKey(long w0, long w1, long w2, long w3) implements OffHeapKeyIndex.Key {
+
+    public static final int BYTES = 32;
+
+    public static HashKey of(String hash) {
+        String hex = Numeric.cleanHexPrefix(hash);
+        if (hex.length() != 64) {
+            throw new IllegalArgumentException("Invalid hash: " + hash);
+        }
+        return new HashKey(
+            Long.parseUnsignedLong(hex, 0, 16, 16),
+            Long.parseUnsignedLong(hex, 16, 32, 16),
+            Long.parseUnsignedLong(hex, 32, 48, 16),
+            Long.parseUnsignedLong(hex, 48, 64, 16));
+    }
+
+    public static HashKey read(ByteBuffer buffer, int offset) {
+        return new HashKey(buffer.getLong(offset), buffer.getLong(offset + 8),
+            buffer.getLong(offset + 16), buffer.getLong(offset + 24));
+    }
+
+    public String toHex() {
+        HexFormat hex = HexFormat.of();
+        return "0x" + hex.toHexDigits(w0) + hex.toHexDigits(w1) + hex.toHexDigits(w2) + hex.toHexDigits(w3);
+    }
+
+    @Override
+    public void write(ByteBuffer buffer, int offset) {
+        buffer.putLong(offset, w0).putLong(offset + 8, w1).putLong(offset + 16, w2).putLong(offset + 24, w3);
+    }
+
+    @Override
+    public boolean matches(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset) == w0 && buffer.getLong(offset + 8) == w1
+            && buffer.getLong(offset + 16) == w2 && buffer.getLong(offset + 24) == w3;
+    }
+
+    @Override
+    public String toString() {
+        return toHex();
+    }
+}
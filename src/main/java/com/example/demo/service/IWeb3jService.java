@@ -7,13 +7,16 @@ import org.web3j.protocol.core.methods.response.TransactionReceipt;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 public interface IWeb3jService {
     BigDecimal getEthBalance(String address);
     CompletableFuture<BigDecimal> getEthBalanceAsync(String address);
+    CompletableFuture<Map<String, BigInteger>> getEthBalances(List<String> addresses);
     BigInteger getTransactionCount(String address);
     BigInteger getGasPrice();
+    GasOracleSnapshot getGasOracle();
     BigInteger getLatestBlockNumber();
     EthBlock.Block getBlockByNumber(BigInteger blockNumber);
     TransactionReceipt getTransactionReceipt(String transactionHash);
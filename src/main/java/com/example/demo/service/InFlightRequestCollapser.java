@@ -0,0 +1,67 @@
+package com.example.demo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.web3j.protocol.ObjectMapperFactory;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Single-flight layer for JSON-RPC reads: identical calls (same method and
+ * serialized params, block tag included) that overlap in time share one
+ * upstream future.
+ */
+@Slf4j
+@Component
+public class InFlightRequestCollapser {
+
+    private final ConcurrentMap<String, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper = ObjectMapperFactory.getObjectMapper();
+
+    @SuppressWarnings("unchecked")
+    public <R extends Response<?>> CompletableFuture<R> collapse(Request<?, R> request,
+                                                                 Function<Request<?, R>, CompletableFuture<R>> sender) {
+        String key = keyOf(request);
+        CompletableFuture<R> leader = new CompletableFuture<>();
+        CompletableFuture<R> existing = (CompletableFuture<R>) inFlight.putIfAbsent(key, leader);
+        if (existing != null) {
+            log.trace("Joined in-flight call {}", key);
+            return existing;
+        }
+
+        try {
+            sender.apply(request).whenComplete((response, error) -> {
+                // Remove before completing so callers arriving afterwards start a fresh call
+                inFlight.remove(key, leader);
+                if (error != null) {
+                    leader.completeExceptionally(error);
+                } else {
+                    leader.complete(response);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(key, leader);
+            leader.completeExceptionally(e);
+        }
+        return leader;
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private String keyOf(Request<?, ?> request) {
+        try {
+            return request.getMethod() + objectMapper.writeValueAsString(request.getParams());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize params for " + request.getMethod(), e);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.demo.service;
+
+import com.example.demo.config.WalletConfig;
+import com.example.demo.entity.StoredKeystore;
+import com.example.demo.exception.Web3jException;
+import com.example.demo.repository.StoredKeystoreRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.web3j.crypto.Credentials;
+import org.web3j.crypto.Wallet;
+import org.web3j.crypto.WalletFile;
+import org.web3j.protocol.ObjectMapperFactory;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keystores of generated wallets, kept in the database by address together
+ * with the user who created them. Each keystore password is stored encrypted
+ * under the master key, so nothing is scanned at startup and a signer is one
+ * primary-key lookup. Decrypted credentials of recently used wallets are
+ * cached, which skips the scrypt cost for hot signers.
+ */
+@Slf4j
+@Component
+public class KeystoreStore implements SignerRegistry {
+
+    private static final int IV_BYTES = 12;
+    private static final int TAG_BITS = 128;
+
+    private final StoredKeystoreRepository repository;
+    private final ObjectMapper objectMapper = ObjectMapperFactory.getObjectMapper();
+    private final SecretKey masterKey;
+    private final SecureRandom random = new SecureRandom();
+    private final LoadingCache<AddressKey, Optional<OwnedCredentials>> credentials;
+
+    public KeystoreStore(StoredKeystoreRepository repository, WalletConfig walletConfig) {
+        this.repository = repository;
+        WalletConfig.Keystore config = walletConfig.getKeystore();
+        this.masterKey = masterKey(config);
+        // Misses are cached too, so an unknown sender does not hit the database on every send
+        this.credentials = Caffeine.newBuilder()
+            .maximumSize(config.getCacheSize())
+            .expireAfterAccess(Duration.ofMinutes(config.getCacheExpireMinutes()))
+            .build(this::load);
+    }
+
+    public void save(GeneratedWallet wallet, String owner) {
+        repository.save(toEntity(wallet, owner));
+        credentials.invalidate(AddressKey.of(wallet.address()));
+    }
+
+    public void saveAll(List<GeneratedWallet> wallets, String owner) {
+        repository.saveAll(wallets.stream().map(wallet -> toEntity(wallet, owner)).toList());
+        wallets.forEach(wallet -> credentials.invalidate(AddressKey.of(wallet.address())));
+    }
+
+    public boolean contains(String address) {
+        return repository.existsById(normalize(address));
+    }
+
+    @Override
+    public Optional<Credentials> credentialsFor(String address, String caller) {
+        if (caller == null) {
+            return Optional.empty();
+        }
+        return credentials.get(AddressKey.of(address))
+            .filter(owned -> owned.owner().equals(caller))
+            .map(OwnedCredentials::credentials);
+    }
+
+    private Optional<OwnedCredentials> load(AddressKey address) {
+        return repository.findById(address.toHex()).map(stored -> {
+            try {
+                WalletFile keystore = objectMapper.readValue(stored.getKeystore(), WalletFile.class);
+                String password = decrypt(stored.getEncryptedPassword(), stored.getAddress(), stored.getOwner());
+                return new OwnedCredentials(stored.getOwner(), Credentials.create(Wallet.decrypt(password, keystore)));
+            } catch (Exception e) {
+                throw new Web3jException("Failed to decrypt keystore of " + stored.getAddress(), e);
+            }
+        });
+    }
+
+    private StoredKeystore toEntity(GeneratedWallet wallet, String owner) {
+        if (owner == null) {
+            throw new IllegalArgumentException("A stored wallet needs an owner");
+        }
+        String address = normalize(wallet.address());
+        try {
+            return StoredKeystore.builder()
+                .address(address)
+                .keystore(objectMapper.writeValueAsString(wallet.keystore()))
+                .encryptedPassword(encrypt(wallet.password(), address, owner))
+                .owner(owner)
+                .createdAt(Instant.now())
+                .build();
+        } catch (Exception e) {
+            throw new Web3jException("Failed to encrypt keystore of " + address, e);
+        }
+    }
+
+    // Address and owner are bound as associated data, so neither a password can be moved to another
+    // row nor a row handed to another user by editing the table
+    private String encrypt(String password, String address, String owner) throws GeneralSecurityException {
+        byte[] iv = new byte[IV_BYTES];
+        random.nextBytes(iv);
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, masterKey, new GCMParameterSpec(TAG_BITS, iv));
+        cipher.updateAAD(associatedData(address, owner));
+        byte[] ciphertext = cipher.doFinal(password.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(ByteBuffer.allocate(iv.length + ciphertext.length)
+            .put(iv).put(ciphertext).array());
+    }
+
+    private String decrypt(String encrypted, String address, String owner) throws GeneralSecurityException {
+        byte[] bytes = Base64.getDecoder().decode(encrypted);
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, masterKey, new GCMParameterSpec(TAG_BITS, bytes, 0, IV_BYTES));
+        cipher.updateAAD(associatedData(address, owner));
+        return new String(cipher.doFinal(bytes, IV_BYTES, bytes.length - IV_BYTES), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] associatedData(String address, String owner) {
+        return (address + "/" + owner).getBytes(StandardCharsets.UTF_8);
+    }
+
+    // AddressKey renders lower-case hex, the form rows are keyed by
+    private static String normalize(String address) {
+        return AddressKey.of(address).toHex();
+    }
+
+    // A generated key dies with the process and strands every wallet stored under it, so only dev may use one
+    private static SecretKey masterKey(WalletConfig.Keystore config) {
+        if (StringUtils.hasText(config.getMasterKey())) {
+            return new SecretKeySpec(Base64.getDecoder().decode(config.getMasterKey()), "AES");
+        }
+        if (!config.isAllowEphemeralMasterKey()) {
+            throw new IllegalStateException(
+                "wallet.keystore.master-key must be set, stored wallets cannot be decrypted without it");
+        }
+        log.warn("wallet.keystore.master-key is not set, stored wallets will be unreadable after a restart");
+        try {
+            KeyGenerator generator = KeyGenerator.getInstance("AES");
+            generator.init(256);
+            return generator.generateKey();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("AES is not available", e);
+        }
+    }
+
+    private record OwnedCredentials(String owner, Credentials credentials) {
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.demo.service;
+
+import org.web3j.crypto.Hash;
+import org.web3j.utils.Numeric;
+
+/**
+ * Membership test against a block header's 2048-bit logsBloom. A false
+ * answer is definite; a true answer may be a false positive.
+ */
+public final class LogsBloom {
+
+    private static final int BLOOM_BYTES = 256;
+
+    private LogsBloom() {
+    }
+
+    public static boolean mightContain(byte[] bloom, String value) {
+        byte[] hash = Hash.sha3(Numeric.hexStringToByteArray(value));
+        // Three 11-bit indexes taken from the first three byte pairs of the hash
+        for (int i = 0; i < 6; i += 2) {
+            int bit = ((hash[i] & 0xFF) << 8 | (hash[i + 1] & 0xFF)) & 0x7FF;
+            if ((bloom[BLOOM_BYTES - 1 - bit / 8] & (1 << (bit % 8))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static byte[] parse(String logsBloom) {
+        return logsBloom == null ? null : Numeric.hexStringToByteArray(logsBloom);
+    }
+}
@@ -0,0 +1,409 @@
+package com.example.demo.service;
+
+import com.example.demo.config.Web3jConfig;
+import com.example.demo.exception.Web3jException;
+import io.reactivex.disposables.Disposable;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.response.EthBlock;
+import org.web3j.protocol.core.methods.response.EthFilter;
+import org.web3j.protocol.core.methods.response.EthLog;
+import org.web3j.protocol.core.methods.response.EthSubscribe;
+import org.web3j.protocol.core.methods.response.EthTransaction;
+import org.web3j.protocol.core.methods.response.Transaction;
+import org.web3j.protocol.websocket.WebSocketService;
+import org.web3j.protocol.websocket.events.PendingTransactionNotification;
+import org.web3j.utils.Numeric;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * In-memory view of the mempool. New pending hashes arrive through a
+ * {@code newPendingTransactions} subscription when a WebSocket URL is
+ * configured, or otherwise from a pending-transaction filter polled on the
+ * node that created it; their bodies are fetched in batches into a
+ * fixed-size ring buffer indexed by hash and by from/to address. Transactions seen in a new block are marked
+ * mined and removed from both indexes.
+ */
+@Slf4j
+@Component
+public class MempoolMonitor {
+
+    // Older blocks are left to ring eviction; a gap this long means the mempool is stale anyway
+    private static final int MAX_CATCH_UP_BLOCKS = 64;
+
+    private final Web3j web3j;
+    private final Web3jBatchDispatcher batchDispatcher;
+    private final Web3jNodePool nodePool;
+    private final Web3jConfig.Mempool config;
+    private final String wsUrl;
+    private final ScheduledExecutorService scheduler =
+        Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("mempool-"));
+    // Keeps slow stream consumers off the ingest thread; notifications are dropped once it falls behind
+    private final ThreadPoolExecutor pushExecutor;
+
+    // Written only on the mempool thread, read from anywhere
+    private final AtomicReferenceArray<Entry> ring;
+    private volatile long nextSequence;
+    private final ConcurrentMap<HashKey, Entry> byHash = new ConcurrentHashMap<>();
+    private final ConcurrentMap<AddressKey, Deque<Entry>> byAddress = new ConcurrentHashMap<>();
+    // Bounded so a node announcing faster than bodies are fetched cannot grow it without limit
+    private final Queue<String> announcedHashes;
+    private final AtomicLong droppedAnnouncements = new AtomicLong();
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    private volatile boolean active;
+    private volatile WebSocketService webSocketService;
+    private volatile Disposable subscription;
+    // A filter only exists on the node that created it, so it is polled there and nowhere else
+    private RpcNode filterNode;
+    private String filterId;
+    private long lastConnectAttemptAt;
+    private long lastMarkedBlock = -1;
+
+    public MempoolMonitor(Web3j web3j, Web3jBatchDispatcher batchDispatcher, Web3jNodePool nodePool,
+                          Web3jConfig web3jConfig) {
+        this.web3j = web3j;
+        this.batchDispatcher = batchDispatcher;
+        this.nodePool = nodePool;
+        this.config = web3jConfig.getMempool();
+        this.wsUrl = web3jConfig.getHead().getWsUrl();
+        this.ring = new AtomicReferenceArray<>(config.getCapacity());
+        this.announcedHashes = new ArrayBlockingQueue<>(config.getAnnounceQueueSize());
+        this.pushExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(config.getPushQueueSize()), new CustomizableThreadFactory("mempool-push-"),
+            new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Pending transactions held; mined ones are no longer counted.
+     */
+    public int size() {
+        return byHash.size();
+    }
+
+    /**
+     * Announced hashes discarded because fetching their bodies fell behind.
+     */
+    public long droppedAnnouncements() {
+        return droppedAnnouncements.get();
+    }
+
+    /**
+     * Most recent pending transactions first.
+     */
+    public List<Transaction> recent(int limit) {
+        List<Transaction> result = new ArrayList<>(Math.min(limit, config.getCapacity()));
+        int capacity = ring.length();
+        long newest = nextSequence - 1;
+        for (long sequence = newest; sequence >= 0 && sequence > newest - capacity && result.size() < limit; sequence--) {
+            Entry entry = ring.get((int) (sequence % capacity));
+            if (entry != null && entry.sequence == sequence && !entry.mined) {
+                result.add(entry.transaction);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Pending transactions sent from or to the address, most recent first.
+     */
+    public List<Transaction> byAddress(String address, int limit) {
+        Deque<Entry> entries = byAddress.get(AddressKey.of(address));
+        if (entries == null) {
+            return List.of();
+        }
+        List<Transaction> result = new ArrayList<>();
+        var iterator = entries.descendingIterator();
+        while (iterator.hasNext() && result.size() < limit) {
+            Entry entry = iterator.next();
+            if (!entry.mined) {
+                result.add(entry.transaction);
+            }
+        }
+        return result;
+    }
+
+    public Transaction get(String transactionHash) {
+        Entry entry = byHash.get(HashKey.of(transactionHash));
+        return entry == null || entry.mined ? null : entry.transaction;
+    }
+
+    /**
+     * Registers a listener for new pending transactions matching the filter.
+     * Listeners share one push thread, so each should return quickly.
+     */
+    public Runnable subscribe(Predicate<Transaction> filter, Consumer<Transaction> listener) {
+        Subscriber subscriber = new Subscriber(filter, listener);
+        subscribers.add(subscriber);
+        return () -> subscribers.remove(subscriber);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (config.isEnabled()) {
+            scheduler.scheduleWithFixedDelay(this::tick, 0, config.getPollIntervalMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @EventListener
+    public void onNewHead(NewHeadEvent event) {
+        if (active) {
+            scheduler.execute(() -> markMined(event.blockNumber().longValueExact()));
+        }
+    }
+
+    private void tick() {
+        try {
+            if (StringUtils.hasText(wsUrl) && subscription == null
+                    && System.currentTimeMillis() - lastConnectAttemptAt >= config.getReconnectIntervalMillis()) {
+                subscribe();
+            }
+            if (subscription == null) {
+                pollFilter();
+            }
+            fetchAnnounced();
+            active = true;
+        } catch (Exception e) {
+            log.warn("Failed to refresh mempool: {}", e.getMessage());
+        }
+    }
+
+    private void subscribe() {
+        lastConnectAttemptAt = System.currentTimeMillis();
+        try {
+            WebSocketService service = new WebSocketService(wsUrl, false);
+            service.connect();
+            webSocketService = service;
+            subscription = service.subscribe(
+                    new Request<>("eth_subscribe", List.of("newPendingTransactions"), service, EthSubscribe.class),
+                    "eth_unsubscribe", PendingTransactionNotification.class)
+                .subscribe(
+                    notification -> announce(notification.getParams().getResult()),
+                    error -> {
+                        log.warn("newPendingTransactions subscription failed, falling back to a filter: {}", error.getMessage());
+                        closeSubscription();
+                    });
+            log.info("Subscribed to newPendingTransactions");
+        } catch (Exception e) {
+            log.warn("Could not subscribe to newPendingTransactions, polling a filter instead: {}", e.getMessage());
+            closeSubscription();
+        }
+    }
+
+    private void pollFilter() throws IOException {
+        if (filterNode != null && !filterNode.isAvailable()) {
+            log.info("Mempool filter node {} was ejected, creating a new filter", filterNode.getName());
+            filterId = null;
+        }
+        if (filterId == null) {
+            filterNode = nodePool.pin();
+            EthFilter filter = checked(new Request<>("eth_newPendingTransactionFilter", Collections.<String>emptyList(),
+                filterNode.getService(), EthFilter.class).send());
+            filterId = Numeric.toHexStringWithPrefixSafe(filter.getFilterId());
+        }
+        EthLog changes;
+        try {
+            changes = checked(new Request<>("eth_getFilterChanges", List.of(filterId),
+                filterNode.getService(), EthLog.class).send());
+        } catch (IOException | RuntimeException e) {
+            // Filters expire on the node after a period without polling
+            filterId = null;
+            throw e;
+        }
+        for (EthLog.LogResult<?> result : changes.getLogs()) {
+            announce((String) result.get());
+        }
+    }
+
+    // Newest announcements are dropped while the queue is full, the ones already queued get fetched first
+    private void announce(String hash) {
+        if (!announcedHashes.offer(hash)) {
+            droppedAnnouncements.incrementAndGet();
+        }
+    }
+
+    private static <T extends Response<?>> T checked(T response) {
+        if (response.hasError()) {
+            throw new Web3jException(response.getError().getMessage());
+        }
+        return response;
+    }
+
+    private void fetchAnnounced() {
+        while (!announcedHashes.isEmpty()) {
+            // Nodes announce the same hash more than once, only fetch it once per batch
+            Set<String> hashes = new LinkedHashSet<>();
+            String hash;
+            while (hashes.size() < config.getFetchBatchSize() && (hash = announcedHashes.poll()) != null) {
+                if (!byHash.containsKey(HashKey.of(hash))) {
+                    hashes.add(hash.toLowerCase(Locale.ROOT));
+                }
+            }
+            // Submitted together so the dispatcher sends them as one batch
+            List<CompletableFuture<EthTransaction>> requests = new ArrayList<>(hashes.size());
+            for (String pendingHash : hashes) {
+                requests.add(batchDispatcher.submit(web3j.ethGetTransactionByHash(pendingHash)));
+            }
+            for (var request : requests) {
+                // Gone already when the body is missing, it was dropped or replaced
+                request.join().getTransaction().ifPresent(this::add);
+            }
+        }
+    }
+
+    private void add(Transaction transaction) {
+        HashKey hash = HashKey.of(transaction.getHash());
+        // A body with a block number was mined before it was fetched
+        if (byHash.containsKey(hash) || transaction.getBlockNumberRaw() != null) {
+            return;
+        }
+        Entry entry = new Entry(nextSequence, transaction);
+        int slot = (int) (nextSequence % ring.length());
+        Entry evicted = ring.getAndSet(slot, entry);
+        nextSequence++;
+        if (evicted != null) {
+            byHash.remove(HashKey.of(evicted.transaction.getHash()), evicted);
+            unindex(evicted, evicted.transaction.getFrom());
+            unindex(evicted, evicted.transaction.getTo());
+        }
+        byHash.put(hash, entry);
+        index(entry, transaction.getFrom());
+        index(entry, transaction.getTo());
+
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.filter.test(transaction)) {
+                pushExecutor.execute(() -> {
+                    try {
+                        subscriber.listener.accept(transaction);
+                    } catch (Exception e) {
+                        log.debug("Mempool subscriber failed: {}", e.getMessage());
+                    }
+                });
+            }
+        }
+    }
+
+    private void index(Entry entry, String address) {
+        if (address != null) {
+            byAddress.computeIfAbsent(AddressKey.of(address), key -> new ConcurrentLinkedDeque<>()).addLast(entry);
+        }
+    }
+
+    // A ring-evicted entry is the oldest, so it usually sits at the head of its deques
+    private void unindex(Entry entry, String address) {
+        if (address == null) {
+            return;
+        }
+        byAddress.computeIfPresent(AddressKey.of(address), (key, entries) -> {
+            if (entries.peekFirst() == entry) {
+                entries.pollFirst();
+            } else {
+                entries.remove(entry);
+            }
+            return entries.isEmpty() ? null : entries;
+        });
+    }
+
+    // Covers every block since the last head seen, the head can jump several blocks after a reconnect
+    private void markMined(long head) {
+        long from = lastMarkedBlock < 0 || head <= lastMarkedBlock
+            ? head
+            : Math.max(lastMarkedBlock + 1, head - MAX_CATCH_UP_BLOCKS + 1);
+        try {
+            List<CompletableFuture<EthBlock>> blocks = new ArrayList<>((int) (head - from + 1));
+            for (long number = from; number <= head; number++) {
+                blocks.add(batchDispatcher.submit(
+                    web3j.ethGetBlockByNumber(DefaultBlockParameter.valueOf(BigInteger.valueOf(number)), false)));
+            }
+            for (CompletableFuture<EthBlock> request : blocks) {
+                EthBlock.Block block = request.join().getBlock();
+                if (block == null) {
+                    continue;
+                }
+                for (EthBlock.TransactionResult<?> tx : block.getTransactions()) {
+                    Entry entry = byHash.remove(HashKey.of((String) tx.get()));
+                    if (entry != null) {
+                        // Its ring slot is left to be overwritten, the flag hides it from recent()
+                        entry.mined = true;
+                        unindex(entry, entry.transaction.getFrom());
+                        unindex(entry, entry.transaction.getTo());
+                    }
+                }
+            }
+            lastMarkedBlock = head;
+        } catch (Exception e) {
+            log.debug("Could not mark mined transactions of blocks {} to {}: {}", from, head, e.getMessage());
+        }
+    }
+
+    private void closeSubscription() {
+        Disposable current = subscription;
+        subscription = null;
+        if (current != null) {
+            current.dispose();
+        }
+        WebSocketService service = webSocketService;
+        webSocketService = null;
+        if (service != null) {
+            service.close();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        pushExecutor.shutdownNow();
+        closeSubscription();
+    }
+
+    private static final class Entry {
+        final long sequence;
+        final Transaction transaction;
+        volatile boolean mined;
+
+        Entry(long sequence, Transaction transaction) {
+            this.sequence = sequence;
+            this.transaction = transaction;
+        }
+    }
+
+    private record Subscriber(Predicate<Transaction> filter, Consumer<Transaction> listener) {
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.demo.service;
+
+import com.example.demo.config.Web3jConfig;
+import com.example.demo.exception.Web3jException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.web3j.crypto.WalletUtils;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.methods.request.Transaction;
+import org.web3j.protocol.core.methods.response.EthBlockNumber;
+import org.web3j.protocol.core.methods.response.EthCall;
+import org.web3j.utils.Numeric;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Reads ETH balances for many addresses by packing Multicall3
+ * {@code getEthBalance} calls into {@code aggregate} eth_calls. All chunks
+ * of one request are pinned to the same block so the result is consistent.
+ */
+@Slf4j
+@Component
+public class MulticallBalanceEngine {
+
+    // aggregate((address,bytes)[]) and getEthBalance(address)
+    private static final String AGGREGATE_SELECTOR = "252dba42";
+    private static final String GET_ETH_BALANCE_SELECTOR = "4d2301cc";
+    // Encoded (address target, bytes callData) tuple with a 36-byte callData padded to 64
+    private static final int CALL_TUPLE_BYTES = 160;
+
+    private final Web3j web3j;
+    private final Web3jBatchDispatcher batchDispatcher;
+    private final BlockHeadTracker headTracker;
+    private final Web3jConfig.Multicall config;
+    private final ExecutorService executor;
+
+    public MulticallBalanceEngine(Web3j web3j, Web3jBatchDispatcher batchDispatcher, BlockHeadTracker headTracker,
+                                  Web3jConfig web3jConfig) {
+        this.web3j = web3j;
+        this.batchDispatcher = batchDispatcher;
+        this.headTracker = headTracker;
+        this.config = web3jConfig.getMulticall();
+        this.executor = Executors.newFixedThreadPool(config.getParallelism(), new CustomizableThreadFactory("multicall-"));
+    }
+
+    public CompletableFuture<Map<String, BigInteger>> getBalances(List<String> addresses) {
+        List<String> unique = addresses.stream().map(String::toLowerCase).distinct().toList();
+        for (String address : unique) {
+            if (!WalletUtils.isValidAddress(address)) {
+                return CompletableFuture.failedFuture(new IllegalArgumentException("Invalid address: " + address));
+            }
+        }
+        if (unique.isEmpty()) {
+            return CompletableFuture.completedFuture(Map.of());
+        }
+
+        CompletableFuture<BigInteger> pinnedBlock = headTracker.hasHead()
+            ? CompletableFuture.completedFuture(headTracker.currentBlock())
+            : batchDispatcher.submit(web3j.ethBlockNumber()).thenApply(EthBlockNumber::getBlockNumber);
+
+        return pinnedBlock.thenCompose(block -> {
+            int chunkSize = chunkSize();
+            List<List<String>> chunks = new ArrayList<>();
+            List<CompletableFuture<List<BigInteger>>> results = new ArrayList<>();
+            for (int from = 0; from < unique.size(); from += chunkSize) {
+                List<String> chunk = unique.subList(from, Math.min(from + chunkSize, unique.size()));
+                chunks.add(chunk);
+                results.add(CompletableFuture.supplyAsync(() -> fetchChunk(chunk, block), executor));
+            }
+            log.debug("Fetching {} balances in {} multicall chunks at block {}", unique.size(), chunks.size(), block);
+
+            return CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).thenApply(v -> {
+                Map<String, BigInteger> balances = new LinkedHashMap<>(unique.size() * 2);
+                for (int i = 0; i < chunks.size(); i++) {
+                    List<String> chunk = chunks.get(i);
+                    List<BigInteger> values = results.get(i).join();
+                    for (int j = 0; j < chunk.size(); j++) {
+                        balances.put(chunk.get(j), values.get(j));
+                    }
+                }
+                return balances;
+            });
+        });
+    }
+
+    // Bounded by both the configured maximum and what fits in the eth_call gas cap
+    int chunkSize() {
+        long byGas = config.getCallGasLimit() / Math.max(1, config.getGasPerCall());
+        return (int) Math.max(1, Math.min(config.getMaxChunkSize(), byGas));
+    }
+
+    private List<BigInteger> fetchChunk(List<String> addresses, BigInteger block) {
+        try {
+            EthCall response = web3j.ethCall(
+                Transaction.createEthCallTransaction(null, config.getAddress(),
+                    encodeAggregate(config.getAddress(), addresses)),
+                DefaultBlockParameter.valueOf(block)).send();
+            if (response.hasError() || response.isReverted()) {
+                throw new Web3jException("Multicall reverted: " + (response.hasError()
+                    ? response.getError().getMessage() : response.getRevertReason()));
+            }
+            List<BigInteger> balances = decodeAggregate(response.getValue());
+            if (balances.size() != addresses.size()) {
+                throw new Web3jException("Multicall returned " + balances.size() + " results for "
+                    + addresses.size() + " calls");
+            }
+            return balances;
+        } catch (Web3jException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new Web3jException("Failed to fetch balances via multicall", e);
+        }
+    }
+
+    // aggregate calldata with one getEthBalance(address) call on the multicall contract per address
+    public static String encodeAggregate(String multicall, List<String> addresses) {
+        int count = addresses.size();
+        String target = word(Numeric.cleanHexPrefix(multicall));
+        StringBuilder data = new StringBuilder(10 + 64 * (2 + count) + count * CALL_TUPLE_BYTES * 2);
+        data.append("0x").append(AGGREGATE_SELECTOR)
+            .append(word(32))
+            .append(word(count));
+        // Tuple offsets are relative to the first head slot of the array
+        for (int i = 0; i < count; i++) {
+            data.append(word((long) count * 32 + (long) i * CALL_TUPLE_BYTES));
+        }
+        for (String address : addresses) {
+            data.append(target)
+                .append(word(64))
+                .append(word(36))
+                .append(GET_ETH_BALANCE_SELECTOR)
+                .append(word(Numeric.cleanHexPrefix(address)))
+                .append("0".repeat(56));
+        }
+        return data.toString();
+    }
+
+    // Decodes the (uint256 blockNumber, bytes[] returnData) result into one uint256 per call
+    public static List<BigInteger> decodeAggregate(String hex) {
+        byte[] data = Numeric.hexStringToByteArray(hex);
+        int array = readInt(data, 32);
+        int count = readInt(data, array);
+        int heads = array + 32;
+        List<BigInteger> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int element = heads + readInt(data, heads + i * 32);
+            int length = readInt(data, element);
+            values.add(new BigInteger(1, Arrays.copyOfRange(data, element + 32, element + 32 + length)));
+        }
+        return values;
+    }
+
+    private static int readInt(byte[] data, int offset) {
+        return new BigInteger(1, Arrays.copyOfRange(data, offset, offset + 32)).intValueExact();
+    }
+
+    private static String word(long value) {
+        return word(Long.toHexString(value));
+    }
+
+    private static String word(String hex) {
+        return "0".repeat(64 - hex.length()) + hex.toLowerCase();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
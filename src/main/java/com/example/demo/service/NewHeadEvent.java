@@ -0,0 +1,10 @@
+package com.example.demo.service;
+
+import java.math.BigInteger;
+
+/**
+ * Published by {@link BlockHeadTracker} whenever the chain head moves.
+ * {@code reorg} is set when the new head replaces a block we had already seen.
+ */
+public record NewHeadEvent(BigInteger blockNumber, String blockHash, String parentHash, boolean reorg) {
+}
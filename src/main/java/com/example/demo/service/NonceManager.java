@@ -0,0 +1,113 @@
+package com.example.demo.service;
+
+import com.example.demo.exception.Web3jException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.methods.response.EthGetTransactionCount;
+
+import java.math.BigInteger;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out nonces per sender without a round trip per transaction. Each
+ * sender is seeded once from its pending transaction count; after that a
+ * nonce is a lock-free increment, nonces of broadcasts that never reached
+ * the node are reused first, and a "nonce too low" reply reseeds the sender.
+ */
+@Slf4j
+@Component
+public class NonceManager {
+
+    private final Web3j web3j;
+    private final Web3jBatchDispatcher batchDispatcher;
+    private final ConcurrentMap<AddressKey, SenderNonces> senders = new ConcurrentHashMap<>();
+
+    public NonceManager(Web3j web3j, Web3jBatchDispatcher batchDispatcher) {
+        this.web3j = web3j;
+        this.batchDispatcher = batchDispatcher;
+    }
+
+    public BigInteger acquire(String address) {
+        SenderNonces nonces = sender(address);
+        Long gap = nonces.gaps.pollFirst();
+        return BigInteger.valueOf(gap != null ? gap : nonces.next.getAndIncrement());
+    }
+
+    /**
+     * Returns a nonce whose transaction was never accepted by the node.
+     */
+    public void release(String address, BigInteger nonce) {
+        SenderNonces nonces = senders.get(AddressKey.of(address));
+        if (nonces == null) {
+            return;
+        }
+        long value = nonce.longValueExact();
+        // The most recent nonce can simply be taken back, anything older becomes a gap
+        if (!nonces.next.compareAndSet(value + 1, value)) {
+            nonces.gaps.add(value);
+        }
+    }
+
+    /**
+     * Moves the sender up to the node's pending count, dropping gaps the chain has already used.
+     */
+    public void resync(String address) {
+        SenderNonces nonces = sender(address);
+        long pending = fetchPendingCount(address);
+        nonces.gaps.removeIf(gap -> gap < pending);
+        long previous = nonces.next.getAndAccumulate(pending, Math::max);
+        if (previous < pending) {
+            log.info("Resynced nonce of {} from {} to {}", address, previous, pending);
+        }
+    }
+
+    public void reset(String address) {
+        senders.remove(AddressKey.of(address));
+    }
+
+    public static boolean isNonceTooLow(String error) {
+        if (error == null) {
+            return false;
+        }
+        String message = error.toLowerCase(Locale.ROOT);
+        return message.contains("nonce too low") || message.contains("replacement transaction underpriced")
+            || message.contains("nonce has already been used");
+    }
+
+    private SenderNonces sender(String address) {
+        AddressKey key = AddressKey.of(address);
+        SenderNonces nonces = senders.get(key);
+        if (nonces != null) {
+            return nonces;
+        }
+        // Seeded outside the map so a slow node only delays the senders that need it
+        SenderNonces seeded = new SenderNonces(fetchPendingCount(address));
+        nonces = senders.putIfAbsent(key, seeded);
+        return nonces != null ? nonces : seeded;
+    }
+
+    // Pending rather than latest so transactions still in the mempool are counted
+    private long fetchPendingCount(String address) {
+        EthGetTransactionCount count = batchDispatcher.submit(
+            web3j.ethGetTransactionCount(address, DefaultBlockParameterName.PENDING)).join();
+        if (count.getTransactionCount() == null) {
+            throw new Web3jException("Node returned no transaction count for " + address);
+        }
+        return count.getTransactionCount().longValueExact();
+    }
+
+    private static final class SenderNonces {
+        final AtomicLong next;
+        final ConcurrentSkipListSet<Long> gaps = new ConcurrentSkipListSet<>();
+
+        SenderNonces(long next) {
+            this.next = new AtomicLong(next);
+        }
+    }
+}
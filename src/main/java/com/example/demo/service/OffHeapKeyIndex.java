@@ -0,0 +1,253 @@
+package com.example.demo.service;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Open-addressing hash index from fixed-width keys to a long, stored in a
+ * direct buffer so millions of entries add nothing for the GC to trace.
+ * Each slot is a state byte, the raw key bytes and the value; collisions
+ * use linear probing and removals leave tombstones until the next rehash.
+ */
+public class OffHeapKeyIndex<K extends OffHeapKeyIndex.Key> {
+
+    /**
+     * A key that can be written to and compared against a slot without allocating.
+     */
+    public interface Key {
+        void write(ByteBuffer buffer, int offset);
+
+        boolean matches(ByteBuffer buffer, int offset);
+    }
+
+    private static final byte EMPTY = 0;
+    private static final byte FULL = 1;
+    private static final byte DELETED = 2;
+    private static final double MAX_LOAD = 0.7;
+
+    private final int keyBytes;
+    private final int slotBytes;
+    private final BiFunction<ByteBuffer, Integer, K> reader;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private ByteBuffer slots;
+    private int capacity;
+    private int size;
+    // Full plus deleted slots, which is what bounds probe lengths
+    private int used;
+
+    public OffHeapKeyIndex(int keyBytes, BiFunction<ByteBuffer, Integer, K> reader, int initialCapacity) {
+        this.keyBytes = keyBytes;
+        this.slotBytes = 1 + keyBytes + Long.BYTES;
+        this.reader = reader;
+        allocate(tableSizeFor(initialCapacity));
+    }
+
+    public static OffHeapKeyIndex<AddressKey> forAddresses(int initialCapacity) {
+        return new OffHeapKeyIndex<>(AddressKey.BYTES, AddressKey::read, initialCapacity);
+    }
+
+    public static OffHeapKeyIndex<HashKey> forHashes(int initialCapacity) {
+        return new OffHeapKeyIndex<>(HashKey.BYTES, HashKey::read, initialCapacity);
+    }
+
+    public long get(K key, long missingValue) {
+        lock.readLock().lock();
+        try {
+            int slot = find(key);
+            return slot < 0 ? missingValue : slots.getLong(valueOffset(slot));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(K key) {
+        lock.readLock().lock();
+        try {
+            return find(key) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns true if the key was added, false if an existing value was replaced.
+     */
+    public boolean put(K key, long value) {
+        lock.writeLock().lock();
+        try {
+            if (used + 1 > capacity * MAX_LOAD) {
+                // Mostly tombstones: clean up in place, otherwise grow
+                rehash(size + 1 > capacity * MAX_LOAD / 2 ? capacity * 2 : capacity);
+            }
+            int mask = capacity - 1;
+            int slot = spread(key.hashCode()) & mask;
+            int tombstone = -1;
+            while (true) {
+                int offset = slot * slotBytes;
+                byte state = slots.get(offset);
+                if (state == EMPTY) {
+                    break;
+                }
+                if (state == DELETED) {
+                    if (tombstone < 0) {
+                        tombstone = slot;
+                    }
+                } else if (key.matches(slots, offset + 1)) {
+                    slots.putLong(valueOffset(slot), value);
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (tombstone >= 0) {
+                slot = tombstone;
+            } else {
+                used++;
+            }
+            int offset = slot * slotBytes;
+            slots.put(offset, FULL);
+            key.write(slots, offset + 1);
+            slots.putLong(valueOffset(slot), value);
+            size++;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Keeps the larger of the stored and given value, inserting if absent.
+     */
+    public void putMax(K key, long value) {
+        lock.writeLock().lock();
+        try {
+            int slot = find(key);
+            if (slot < 0) {
+                put(key, value);
+            } else if (slots.getLong(valueOffset(slot)) < value) {
+                slots.putLong(valueOffset(slot), value);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(K key) {
+        lock.writeLock().lock();
+        try {
+            int slot = find(key);
+            if (slot < 0) {
+                return false;
+            }
+            slots.put(slot * slotBytes, DELETED);
+            size--;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void forEach(ObjLongConsumer<K> consumer) {
+        lock.readLock().lock();
+        try {
+            for (int slot = 0; slot < capacity; slot++) {
+                int offset = slot * slotBytes;
+                if (slots.get(offset) == FULL) {
+                    consumer.accept(reader.apply(slots, offset + 1), slots.getLong(valueOffset(slot)));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            allocate(capacity);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long offHeapBytes() {
+        lock.readLock().lock();
+        try {
+            return (long) capacity * slotBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int find(K key) {
+        int mask = capacity - 1;
+        int slot = spread(key.hashCode()) & mask;
+        // Terminates because the load factor keeps at least one empty slot
+        while (true) {
+            int offset = slot * slotBytes;
+            byte state = slots.get(offset);
+            if (state == EMPTY) {
+                return -1;
+            }
+            if (state == FULL && key.matches(slots, offset + 1)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        ByteBuffer old = slots;
+        int oldCapacity = capacity;
+        allocate(newCapacity);
+        for (int slot = 0; slot < oldCapacity; slot++) {
+            int offset = slot * slotBytes;
+            if (old.get(offset) == FULL) {
+                K key = reader.apply(old, offset + 1);
+                int target = spread(key.hashCode()) & (capacity - 1);
+                while (slots.get(target * slotBytes) != EMPTY) {
+                    target = (target + 1) & (capacity - 1);
+                }
+                slots.put(target * slotBytes, old, offset, slotBytes);
+                size++;
+                used++;
+            }
+        }
+    }
+
+    private void allocate(int newCapacity) {
+        if ((long) newCapacity * slotBytes > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Off-heap index cannot grow beyond " + capacity + " slots");
+        }
+        slots = ByteBuffer.allocateDirect(newCapacity * slotBytes);
+        capacity = newCapacity;
+        size = 0;
+        used = 0;
+    }
+
+    private int valueOffset(int slot) {
+        return slot * slotBytes + 1 + keyBytes;
+    }
+
+    private static int spread(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int slots = (int) Math.ceil(Math.max(capacity, 16) / MAX_LOAD);
+        return Integer.highestOneBit(slots - 1) << 1;
+    }
+}
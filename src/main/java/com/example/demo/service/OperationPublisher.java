@@ -0,0 +1,130 @@
+package com.example.demo.service;
+
+import com.example.demo.config.MessagingConfig;
+import com.example.demo.dto.Web3Response;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.rabbit.AsyncRabbitTemplate;
+import org.springframework.amqp.rabbit.RabbitConverterFuture;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes operations for the message producers and completes with the
+ * consumer's reply. Publishing runs on its own executor and at most
+ * {@code messaging.publish.max-in-flight} operations may await their reply;
+ * each of them holds a direct reply-to channel, so the limit has to stay
+ * below the broker's {@code channel_max}. A nack, for instance from {@code reject-publish} on a full queue,
+ * or a returned unroutable message fails the caller's future instead of
+ * leaving it to time out.
+ */
+@Slf4j
+@Component
+public class OperationPublisher {
+
+    private static final ParameterizedTypeReference<Web3Response<Map<String, Object>>> REPLY_TYPE =
+        new ParameterizedTypeReference<>() {};
+
+    private final AsyncRabbitTemplate asyncRabbitTemplate;
+    private final MessagingConfig.Publish config;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor executor;
+    private final Semaphore inFlight;
+
+    public OperationPublisher(AsyncRabbitTemplate asyncRabbitTemplate, MessagingConfig messagingConfig,
+                              MeterRegistry meterRegistry) {
+        this.asyncRabbitTemplate = asyncRabbitTemplate;
+        this.config = messagingConfig.getPublish();
+        this.meterRegistry = meterRegistry;
+        this.executor = new ThreadPoolExecutor(config.getThreads(), config.getThreads(), 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(config.getQueueSize()), new CustomizableThreadFactory("amqp-publish-"),
+            new ThreadPoolExecutor.AbortPolicy());
+        this.inFlight = new Semaphore(config.getMaxInFlight());
+        Gauge.builder("messaging.publish.inflight", inFlight,
+                semaphore -> config.getMaxInFlight() - semaphore.availablePermits())
+            .register(meterRegistry);
+    }
+
+    public CompletableFuture<Web3Response<Map<String, Object>>> publish(String exchange, String routingKey,
+                                                                        Object payload,
+                                                                        MessagePostProcessor postProcessor) {
+        CompletableFuture<Web3Response<Map<String, Object>>> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> send(exchange, routingKey, payload, postProcessor, result));
+        } catch (RejectedExecutionException e) {
+            outcome("rejected");
+            result.completeExceptionally(new AmqpException("Publisher is saturated"));
+        }
+        return result;
+    }
+
+    private void send(String exchange, String routingKey, Object payload, MessagePostProcessor postProcessor,
+                      CompletableFuture<Web3Response<Map<String, Object>>> result) {
+        try {
+            if (!inFlight.tryAcquire(config.getAcquireTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                outcome("rejected");
+                result.completeExceptionally(new AmqpException("Too many operations awaiting a reply"));
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(e);
+            return;
+        }
+
+        RabbitConverterFuture<Web3Response<Map<String, Object>>> reply;
+        try {
+            reply = asyncRabbitTemplate.convertSendAndReceiveAsType(exchange, routingKey, payload, postProcessor,
+                REPLY_TYPE);
+        } catch (Exception e) {
+            inFlight.release();
+            outcome("failed");
+            result.completeExceptionally(e);
+            return;
+        }
+
+        reply.getConfirm().whenComplete((ack, error) -> {
+            if (error == null && Boolean.TRUE.equals(ack)) {
+                outcome("confirmed");
+                return;
+            }
+            outcome("nacked");
+            String cause = error != null ? error.getMessage() : reply.getNackCause();
+            log.warn("Broker did not accept message for {}: {}", routingKey, cause);
+            result.completeExceptionally(new AmqpException("Broker rejected the message: " + cause));
+            reply.cancel(false);
+        });
+        // The reply-to channel is held until the reply, a timeout or the cancel after a nack
+        reply.whenComplete((response, error) -> {
+            inFlight.release();
+            if (error == null) {
+                result.complete(response);
+            } else {
+                result.completeExceptionally(error);
+            }
+        });
+    }
+
+    private void outcome(String outcome) {
+        Counter.builder("messaging.publish.result").tag("outcome", outcome).register(meterRegistry).increment();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.demo.service;
+
+import com.example.demo.config.Web3jConfig;
+import com.example.demo.exception.Web3jException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.methods.response.EthBlock;
+import org.web3j.protocol.core.methods.response.EthGetTransactionReceipt;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Waits for receipts on behalf of callers instead of letting them poll.
+ * Pending hashes are checked once per new head: a small set is fetched in
+ * one batched receipt request, a large one is first narrowed to the hashes
+ * that appear in the new blocks. Only mined receipts are ever cached.
+ * Hashes that only a client is waiting on have their own, smaller budget
+ * and expire with the longest await, so they never take the capacity kept
+ * for transactions this service broadcast.
+ */
+@Slf4j
+@Component
+public class ReceiptTracker {
+
+    private final Web3j web3j;
+    private final Web3jBatchDispatcher batchDispatcher;
+    private final BlockHeadTracker headTracker;
+    private final TieredChainDataCache chainDataCache;
+    private final Web3jConfig.Receipts config;
+    private final ConcurrentMap<HashKey, PendingReceipt> pending = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("receipt-tracker-"));
+    private final AtomicBoolean checkScheduled = new AtomicBoolean();
+    private final AtomicInteger broadcastCount = new AtomicInteger();
+    private final AtomicInteger awaitedCount = new AtomicInteger();
+
+    // Only touched on the tracker thread
+    private long lastCheckedBlock = -1;
+    private volatile boolean fullCheckPending;
+
+    public ReceiptTracker(Web3j web3j, Web3jBatchDispatcher batchDispatcher, BlockHeadTracker headTracker,
+                          TieredChainDataCache chainDataCache, Web3jConfig web3jConfig) {
+        this.web3j = web3j;
+        this.batchDispatcher = batchDispatcher;
+        this.headTracker = headTracker;
+        this.chainDataCache = chainDataCache;
+        this.config = web3jConfig.getReceipts();
+    }
+
+    /**
+     * Completes with the receipt once the transaction is mined. Callers wanting
+     * a timeout should apply it to a {@code copy()} so other waiters are unaffected.
+     */
+    public CompletableFuture<TransactionReceipt> track(String transactionHash) {
+        return track(transactionHash, false);
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    @EventListener
+    public void onBroadcast(TransactionBroadcastEvent event) {
+        track(event.transactionHash(), true);
+    }
+
+    private CompletableFuture<TransactionReceipt> track(String transactionHash, boolean broadcast) {
+        HashKey key = HashKey.of(transactionHash);
+        PendingReceipt existing = pending.get(key);
+        if (existing != null) {
+            return attach(existing, broadcast);
+        }
+        AtomicInteger count = broadcast ? broadcastCount : awaitedCount;
+        int limit = broadcast ? config.getMaxTracked() : config.getMaxAwaited();
+        if (count.incrementAndGet() > limit) {
+            count.decrementAndGet();
+            return CompletableFuture.failedFuture(new Web3jException("Too many receipts are being tracked"));
+        }
+        PendingReceipt created = new PendingReceipt(transactionHash, !broadcast, expiry(broadcast));
+        existing = pending.putIfAbsent(key, created);
+        if (existing != null) {
+            count.decrementAndGet();
+            return attach(existing, broadcast);
+        }
+        if (!broadcast) {
+            // It may already be mined; one batched lookup now instead of waiting for the next head.
+            // A broadcast was only just sent, so there is nothing to look up before the next head
+            fetchReceipts(List.of(created));
+        }
+        return created.future;
+    }
+
+    // A broadcast takes over an awaited entry with its own budget and timeout, a new await keeps it alive
+    private CompletableFuture<TransactionReceipt> attach(PendingReceipt existing, boolean broadcast) {
+        synchronized (existing) {
+            if (existing.awaitedOnly && pending.get(HashKey.of(existing.hash)) == existing) {
+                if (broadcast) {
+                    existing.awaitedOnly = false;
+                    awaitedCount.decrementAndGet();
+                    broadcastCount.incrementAndGet();
+                }
+                existing.expiresAt = Math.max(existing.expiresAt, expiry(broadcast));
+            }
+        }
+        return existing.future;
+    }
+
+    private long expiry(boolean broadcast) {
+        return System.currentTimeMillis()
+            + (broadcast ? config.getPendingTimeoutMillis() : config.getMaxAwaitMillis());
+    }
+
+    // Called once the entry has left the map
+    private void released(PendingReceipt receipt) {
+        synchronized (receipt) {
+            (receipt.awaitedOnly ? awaitedCount : broadcastCount).decrementAndGet();
+        }
+    }
+
+    @EventListener
+    public void onNewHead(NewHeadEvent event) {
+        if (event.reorg()) {
+            fullCheckPending = true;
+        }
+        if (checkScheduled.compareAndSet(false, true)) {
+            executor.execute(this::check);
+        }
+    }
+
+    private void check() {
+        checkScheduled.set(false);
+        long head = headTracker.currentBlock().longValue();
+        try {
+            expire();
+            if (pending.isEmpty()) {
+                lastCheckedBlock = head;
+                return;
+            }
+            boolean fullCheck = fullCheckPending || lastCheckedBlock < 0
+                || head - lastCheckedBlock > config.getMaxBlocksPerCheck()
+                || pending.size() <= config.getFullCheckThreshold();
+            fullCheckPending = false;
+            List<PendingReceipt> candidates = fullCheck
+                ? new ArrayList<>(pending.values())
+                : minedIn(lastCheckedBlock + 1, head);
+            fetchReceipts(candidates).join();
+            lastCheckedBlock = head;
+        } catch (Exception e) {
+            // Leave lastCheckedBlock alone so the blocks are looked at again on the next head
+            log.warn("Receipt check at block {} failed: {}", head, e.getMessage());
+        }
+    }
+
+    // Pending transactions that appear in the given blocks, from their transaction hash lists
+    private List<PendingReceipt> minedIn(long fromBlock, long toBlock) {
+        List<CompletableFuture<EthBlock>> blocks = new ArrayList<>();
+        for (long number = fromBlock; number <= toBlock; number++) {
+            blocks.add(batchDispatcher.submit(
+                web3j.ethGetBlockByNumber(DefaultBlockParameter.valueOf(BigInteger.valueOf(number)), false)));
+        }
+        List<PendingReceipt> mined = new ArrayList<>();
+        for (CompletableFuture<EthBlock> future : blocks) {
+            EthBlock.Block block = future.join().getBlock();
+            if (block == null) {
+                continue;
+            }
+            for (EthBlock.TransactionResult<?> tx : block.getTransactions()) {
+                PendingReceipt receipt = pending.get(HashKey.of((String) tx.get()));
+                if (receipt != null) {
+                    mined.add(receipt);
+                }
+            }
+        }
+        return mined;
+    }
+
+    private CompletableFuture<Void> fetchReceipts(List<PendingReceipt> candidates) {
+        // Submitted together so the dispatcher sends them as one batch
+        Map<PendingReceipt, CompletableFuture<EthGetTransactionReceipt>> requests = new HashMap<>();
+        for (PendingReceipt candidate : candidates) {
+            requests.put(candidate, batchDispatcher.submit(web3j.ethGetTransactionReceipt(candidate.hash)));
+        }
+        List<CompletableFuture<Void>> handled = new ArrayList<>(requests.size());
+        requests.forEach((candidate, request) -> handled.add(request.thenAccept(response ->
+            response.getTransactionReceipt().ifPresent(receipt -> complete(candidate, receipt)))));
+        return CompletableFuture.allOf(handled.toArray(new CompletableFuture[0]));
+    }
+
+    private void complete(PendingReceipt candidate, TransactionReceipt receipt) {
+        if (pending.remove(HashKey.of(candidate.hash), candidate)) {
+            released(candidate);
+            // Prime the receipt cache so follow-up lookups need no RPC
+            chainDataCache.get("receipt:" + candidate.hash, TransactionReceipt.class,
+                TransactionReceipt::getBlockNumber, () -> receipt);
+            candidate.future.complete(receipt);
+        }
+    }
+
+    private void expire() {
+        long now = System.currentTimeMillis();
+        for (PendingReceipt receipt : pending.values()) {
+            if (receipt.expiresAt < now && pending.remove(HashKey.of(receipt.hash), receipt)) {
+                released(receipt);
+                receipt.future.completeExceptionally(new Web3jException(
+                    "Transaction " + receipt.hash + " was not mined before tracking expired"));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static final class PendingReceipt {
+        final String hash;
+        final CompletableFuture<TransactionReceipt> future = new CompletableFuture<>();
+        // Guarded by the entry's monitor
+        boolean awaitedOnly;
+        volatile long expiresAt;
+
+        PendingReceipt(String hash, boolean awaitedOnly, long expiresAt) {
+            this.hash = hash;
+            this.awaitedOnly = awaitedOnly;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
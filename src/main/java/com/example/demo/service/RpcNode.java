@@ -0,0 +1,70 @@
+package com.example.demo.service;
+
+import lombok.Getter;
+import org.web3j.protocol.http.HttpService;
+
+import java.math.BigInteger;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One upstream JSON-RPC endpoint in the {@link Web3jNodePool}, with the
+ * routing state the pool keeps for it: latency EWMA, last seen head and
+ * ejection status.
+ */
+@Getter
+public class RpcNode {
+
+    private final String name;
+    private final int weight;
+    private final HttpService service;
+    private volatile double latencyEwmaMillis;
+    private volatile BigInteger head = BigInteger.ZERO;
+    // Non-zero while ejected: the earliest time a successful probe may readmit the node
+    private volatile long ejectedUntil;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    public RpcNode(String url, int weight, HttpService service) {
+        // Provider URLs usually embed an API key, so only the host is used for logs and metrics
+        this.name = URI.create(url).getHost();
+        this.weight = Math.max(1, weight);
+        this.service = service;
+    }
+
+    public boolean isAvailable() {
+        return ejectedUntil == 0;
+    }
+
+    public double score() {
+        return latencyEwmaMillis / weight;
+    }
+
+    void recordLatency(long elapsedNanos, double alpha) {
+        double sample = TimeUnit.NANOSECONDS.toMicros(elapsedNanos) / 1000.0;
+        double current = latencyEwmaMillis;
+        latencyEwmaMillis = current == 0 ? sample : alpha * sample + (1 - alpha) * current;
+    }
+
+    void recordSuccess(long elapsedNanos, double alpha) {
+        recordLatency(elapsedNanos, alpha);
+        consecutiveFailures.set(0);
+    }
+
+    int recordFailure() {
+        return consecutiveFailures.incrementAndGet();
+    }
+
+    void updateHead(BigInteger head) {
+        this.head = head;
+    }
+
+    void eject(long untilMillis) {
+        this.ejectedUntil = untilMillis;
+    }
+
+    void readmit() {
+        this.ejectedUntil = 0;
+        consecutiveFailures.set(0);
+    }
+}
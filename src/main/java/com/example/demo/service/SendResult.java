@@ -0,0 +1,10 @@
+package com.example.demo.service;
+
+import java.math.BigInteger;
+
+/**
+ * A transaction accepted by the node; values are in wei.
+ */
+public record SendResult(String transactionHash, String from, String to, BigInteger value, BigInteger nonce,
+                         BigInteger gasLimit) {
+}
@@ -0,0 +1,16 @@
+package com.example.demo.service;
+
+import org.web3j.crypto.Credentials;
+
+import java.util.Optional;
+
+/**
+ * Source of signing keys for outgoing transactions.
+ */
+public interface SignerRegistry {
+
+    /**
+     * The key of the address, or empty when there is none or the caller may not send from it.
+     */
+    Optional<Credentials> credentialsFor(String address, String caller);
+}
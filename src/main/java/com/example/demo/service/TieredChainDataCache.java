@@ -0,0 +1,71 @@
+package com.example.demo.service;
+
+import com.example.demo.config.Web3jConfig;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Two-tier cache for blocks, transactions and receipts. Objects older than
+ * the confirmation depth go to the {@link FinalizedChainDataStore}; anything
+ * still inside the window (or not yet mined) only lives in a short-TTL heap
+ * cache. Missing values are never cached.
+ */
+@Component
+public class TieredChainDataCache {
+
+    private final FinalizedChainDataStore finalizedStore;
+    private final BlockHeadTracker headTracker;
+    private final long confirmations;
+    private final Cache<String, Object> recent;
+
+    public TieredChainDataCache(FinalizedChainDataStore finalizedStore, BlockHeadTracker headTracker,
+                                Web3jConfig web3jConfig) {
+        Web3jConfig.FinalizedStore config = web3jConfig.getFinalizedStore();
+        this.finalizedStore = finalizedStore;
+        this.headTracker = headTracker;
+        this.confirmations = config.getConfirmations();
+        this.recent = Caffeine.newBuilder()
+            .maximumSize(config.getRecentMaxSize())
+            .expireAfterWrite(Duration.ofSeconds(config.getRecentTtlSeconds()))
+            .build();
+    }
+
+    public <T> T get(String key, Class<T> type, Function<T, BigInteger> blockNumberOf, Supplier<T> loader) {
+        T value = finalizedStore.get(key, type);
+        if (value != null) {
+            return value;
+        }
+
+        value = type.cast(recent.getIfPresent(key));
+        if (value != null) {
+            // Promote entries that finalized while sitting in the heap tier
+            if (isFinal(blockNumberOf.apply(value))) {
+                finalizedStore.put(key, value);
+                recent.invalidate(key);
+            }
+            return value;
+        }
+
+        value = loader.get();
+        if (value == null) {
+            return null;
+        }
+        if (isFinal(blockNumberOf.apply(value))) {
+            finalizedStore.put(key, value);
+        } else {
+            recent.put(key, value);
+        }
+        return value;
+    }
+
+    public boolean isFinal(BigInteger blockNumber) {
+        return blockNumber != null && headTracker.hasHead()
+            && headTracker.currentBlock().subtract(blockNumber).longValue() >= confirmations;
+    }
+}
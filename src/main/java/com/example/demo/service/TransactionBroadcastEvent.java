@@ -0,0 +1,9 @@
+package com.example.demo.service;
+
+import java.math.BigInteger;
+
+/**
+ * Published once the node has accepted a transaction sent by the send pipeline.
+ */
+public record TransactionBroadcastEvent(String transactionHash, String from, String to, BigInteger nonce) {
+}
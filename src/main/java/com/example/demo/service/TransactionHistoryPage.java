@@ -0,0 +1,12 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.AddressTransaction;
+
+import java.util.List;
+
+/**
+ * One page of an address history, newest first. {@code nextCursor} is null
+ * on the last page.
+ */
+public record TransactionHistoryPage(List<AddressTransaction> transactions, String nextCursor, long indexedThrough) {
+}
@@ -0,0 +1,397 @@
+package com.example.demo.service;
+
+import com.example.demo.config.Web3jConfig;
+import com.example.demo.entity.AddressTransaction;
+import com.example.demo.entity.IndexedBlock;
+import com.example.demo.entity.IndexerCheckpoint;
+import com.example.demo.exception.Web3jException;
+import com.example.demo.repository.AddressTransactionRepository;
+import com.example.demo.repository.IndexedBlockRepository;
+import com.example.demo.repository.IndexerCheckpointRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import org.web3j.crypto.WalletUtils;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.methods.response.EthBlock;
+import org.web3j.protocol.core.methods.response.Transaction;
+
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Maintains the local address to transaction index behind
+ * GET_TRANSACTION_HISTORY. Finalized blocks are backfilled in parallel
+ * chunks; newer blocks are applied one at a time in order, checking each
+ * parent hash so a reorganised tail is rolled back and re-indexed.
+ */
+@Slf4j
+@Component
+public class TransactionIndexer {
+
+    static final String CHECKPOINT = "address-transactions";
+
+    private final Web3j web3j;
+    private final Web3jBatchDispatcher batchDispatcher;
+    private final BlockHeadTracker headTracker;
+    private final AddressTransactionRepository transactionRepository;
+    private final IndexedBlockRepository blockRepository;
+    private final IndexerCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Web3jConfig.Indexer config;
+    private final ExecutorService backfillExecutor;
+    // Single thread, so backfill and tip blocks never interleave
+    private final ExecutorService ingestExecutor;
+    private final AtomicBoolean advanceScheduled = new AtomicBoolean();
+    // Every indexed address with the last block it appeared in; absent means no history
+    private final OffHeapKeyIndex<AddressKey> knownAddresses;
+
+    private volatile long indexedThrough = -1;
+    private volatile boolean started;
+    private volatile boolean following;
+    private volatile boolean addressesLoaded;
+    private volatile boolean reorgPending;
+
+    public TransactionIndexer(Web3j web3j, Web3jBatchDispatcher batchDispatcher, BlockHeadTracker headTracker,
+                              AddressTransactionRepository transactionRepository,
+                              IndexedBlockRepository blockRepository,
+                              IndexerCheckpointRepository checkpointRepository,
+                              PlatformTransactionManager transactionManager, Web3jConfig web3jConfig) {
+        this.web3j = web3j;
+        this.batchDispatcher = batchDispatcher;
+        this.headTracker = headTracker;
+        this.transactionRepository = transactionRepository;
+        this.blockRepository = blockRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.config = web3jConfig.getIndexer();
+        this.backfillExecutor = Executors.newFixedThreadPool(config.getParallelism(),
+            new CustomizableThreadFactory("tx-backfill-"));
+        this.ingestExecutor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("tx-indexer-"));
+        this.knownAddresses = OffHeapKeyIndex.forAddresses(config.getAddressIndexCapacity());
+    }
+
+    public long getIndexedThrough() {
+        return indexedThrough;
+    }
+
+    public TransactionHistoryPage getHistory(String address, String cursor, int limit) {
+        if (!WalletUtils.isValidAddress(address)) {
+            throw new IllegalArgumentException("Invalid address: " + address);
+        }
+        String normalized = address.toLowerCase();
+        if (addressesLoaded && !knownAddresses.contains(AddressKey.of(normalized))) {
+            return new TransactionHistoryPage(List.of(), null, indexedThrough);
+        }
+        int size = Math.max(1, Math.min(limit, config.getMaxPageSize()));
+        Pageable page = PageRequest.of(0, size);
+
+        List<AddressTransaction> transactions;
+        if (StringUtils.hasText(cursor)) {
+            long[] position = decodeCursor(cursor);
+            transactions = transactionRepository.findPageBefore(normalized, position[0], (int) position[1], page);
+        } else {
+            transactions = transactionRepository.findByAddressOrderByBlockNumberDescTransactionIndexDesc(normalized, page);
+        }
+
+        String nextCursor = null;
+        if (transactions.size() == size) {
+            AddressTransaction last = transactions.get(size - 1);
+            nextCursor = last.getBlockNumber() + ":" + last.getTransactionIndex();
+        }
+        return new TransactionHistoryPage(transactions, nextCursor, indexedThrough);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        indexedThrough = checkpointRepository.findById(CHECKPOINT)
+            .map(IndexerCheckpoint::getBlockNumber)
+            .orElse(config.getStartBlock() - 1);
+        log.info("Transaction indexer resuming after block {}", indexedThrough);
+        started = true;
+        ingestExecutor.execute(this::loadKnownAddresses);
+        scheduleAdvance();
+    }
+
+    @EventListener
+    public void onNewHead(NewHeadEvent event) {
+        if (!started) {
+            return;
+        }
+        if (event.reorg()) {
+            reorgPending = true;
+        }
+        // Runs on the head tracker thread, so only hand off
+        scheduleAdvance();
+    }
+
+    private void loadKnownAddresses() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Object[]> addresses = transactionRepository.streamLastBlockByAddress()) {
+                    addresses.forEach(row -> knownAddresses.putMax(AddressKey.of((String) row[0]), (Long) row[1]));
+                }
+            });
+            addressesLoaded = true;
+            log.info("Loaded {} indexed addresses ({} bytes off-heap)",
+                knownAddresses.size(), knownAddresses.offHeapBytes());
+        } catch (Exception e) {
+            // History queries simply skip the fast path
+            log.warn("Failed to load indexed addresses: {}", e.getMessage());
+        }
+    }
+
+    private void scheduleAdvance() {
+        if (advanceScheduled.compareAndSet(false, true)) {
+            ingestExecutor.execute(this::advance);
+        }
+    }
+
+    private void advance() {
+        advanceScheduled.set(false);
+        try {
+            if (!following) {
+                backfill();
+                following = true;
+                log.info("Transaction indexer caught up to block {}, following the head", indexedThrough);
+            }
+            followHead();
+        } catch (Exception e) {
+            log.warn("Transaction indexing stopped at block {}, retrying on the next head: {}",
+                indexedThrough, e.getMessage());
+        }
+    }
+
+    private void backfill() {
+        long target;
+        while (indexedThrough < (target = currentHead() - config.getConfirmations())) {
+            backfillRange(indexedThrough + 1, target);
+        }
+    }
+
+    // Chunks finish in any order but the checkpoint only moves over a contiguous prefix
+    private void backfillRange(long from, long to) {
+        Deque<CompletableFuture<Long>> window = new ArrayDeque<>(config.getParallelism());
+        long next = from;
+        try {
+            while (next <= to && window.size() < config.getParallelism()) {
+                window.add(submitChunk(next, to));
+                next = Math.min(next + config.getChunkSize() - 1, to) + 1;
+            }
+            while (!window.isEmpty()) {
+                long chunkEnd = window.poll().join();
+                saveCheckpoint(chunkEnd);
+                indexedThrough = chunkEnd;
+                if (next <= to) {
+                    window.add(submitChunk(next, to));
+                    next = Math.min(next + config.getChunkSize() - 1, to) + 1;
+                }
+            }
+            log.debug("Backfilled blocks {} to {}", from, to);
+        } finally {
+            window.forEach(future -> future.cancel(false));
+        }
+    }
+
+    private CompletableFuture<Long> submitChunk(long from, long limit) {
+        long to = Math.min(from + config.getChunkSize() - 1, limit);
+        return CompletableFuture.supplyAsync(() -> indexChunk(from, to, to == limit), backfillExecutor);
+    }
+
+    // The last chunk of a range also records its final block, whose hash the first followed block is checked against
+    private long indexChunk(long from, long to, boolean boundary) {
+        // Submitted together so the dispatcher sends them as one batch
+        List<CompletableFuture<EthBlock>> requests = new ArrayList<>();
+        for (long number = from; number <= to; number++) {
+            requests.add(batchDispatcher.submit(
+                web3j.ethGetBlockByNumber(DefaultBlockParameter.valueOf(BigInteger.valueOf(number)), true)));
+        }
+        List<AddressTransaction> rows = new ArrayList<>();
+        EthBlock.Block last = null;
+        for (CompletableFuture<EthBlock> request : requests) {
+            EthBlock.Block block = request.join().getBlock();
+            if (block == null) {
+                throw new Web3jException("Block missing while backfilling " + from + " to " + to);
+            }
+            rows.addAll(rows(block));
+            last = block;
+        }
+        EthBlock.Block end = last;
+        // Delete first so a chunk re-run after a restart does not duplicate rows
+        transactionTemplate.executeWithoutResult(status -> {
+            transactionRepository.deleteBlockRange(from, to);
+            transactionRepository.saveAll(rows);
+            if (boundary) {
+                blockRepository.save(indexedBlock(end));
+            }
+        });
+        remember(rows);
+        return to;
+    }
+
+    private void followHead() {
+        if (reorgPending) {
+            reorgPending = false;
+            verifyTip();
+        }
+        long head = currentHead();
+        while (indexedThrough < head) {
+            long number = indexedThrough + 1;
+            EthBlock.Block block = fetchBlock(number, true);
+            if (block == null) {
+                break;
+            }
+            IndexedBlock parent = blockRepository.findById(number - 1).orElse(null);
+            if (parent != null && !parent.getHash().equals(block.getParentHash())) {
+                log.info("Block {} does not extend the indexed chain, rolling back block {}", number, number - 1);
+                rollback(number - 1);
+                continue;
+            }
+
+            List<AddressTransaction> rows = rows(block);
+            transactionTemplate.executeWithoutResult(status -> {
+                transactionRepository.deleteBlockRange(number, number);
+                transactionRepository.saveAll(rows);
+                blockRepository.save(indexedBlock(block));
+                if (number % config.getRetainedBlocks() == 0) {
+                    blockRepository.deleteBelow(number - config.getRetainedBlocks());
+                }
+                saveCheckpoint(number);
+            });
+            remember(rows);
+            indexedThrough = number;
+        }
+    }
+
+    // A reorg can replace the block we already hold at the tip without a higher block to expose it
+    private void verifyTip() {
+        long number = indexedThrough;
+        while (number >= 0) {
+            IndexedBlock indexed = blockRepository.findById(number).orElse(null);
+            EthBlock.Block canonical = indexed == null ? null : fetchBlock(number, false);
+            if (canonical == null || Objects.equals(indexed.getHash(), canonical.getHash())) {
+                break;
+            }
+            number--;
+        }
+        if (number < indexedThrough) {
+            log.info("Rolling back indexed blocks after {}", number);
+            rollback(number + 1);
+        }
+    }
+
+    private void rollback(long fromBlock) {
+        transactionTemplate.executeWithoutResult(status -> {
+            transactionRepository.deleteFromBlock(fromBlock);
+            blockRepository.deleteFromBlock(fromBlock);
+            saveCheckpoint(fromBlock - 1);
+        });
+        indexedThrough = fromBlock - 1;
+    }
+
+    // Rolled back rows are left in place; a stale entry only costs a database query
+    private void remember(List<AddressTransaction> rows) {
+        for (AddressTransaction row : rows) {
+            knownAddresses.putMax(AddressKey.of(row.getAddress()), row.getBlockNumber());
+        }
+    }
+
+    private List<AddressTransaction> rows(EthBlock.Block block) {
+        long blockNumber = block.getNumber().longValueExact();
+        List<AddressTransaction> rows = new ArrayList<>(block.getTransactions().size() * 2);
+        for (EthBlock.TransactionResult<?> result : block.getTransactions()) {
+            Transaction tx = (Transaction) result.get();
+            String from = tx.getFrom().toLowerCase();
+            // Contract creations are indexed under the created contract
+            String to = tx.getTo() != null ? tx.getTo() : tx.getCreates();
+            to = to == null ? null : to.toLowerCase();
+            int index = tx.getTransactionIndex().intValueExact();
+
+            if (from.equals(to)) {
+                rows.add(row(from, blockNumber, index, tx.getHash(), AddressTransaction.Direction.SELF));
+                continue;
+            }
+            rows.add(row(from, blockNumber, index, tx.getHash(), AddressTransaction.Direction.OUT));
+            if (to != null) {
+                rows.add(row(to, blockNumber, index, tx.getHash(), AddressTransaction.Direction.IN));
+            }
+        }
+        return rows;
+    }
+
+    private static IndexedBlock indexedBlock(EthBlock.Block block) {
+        return IndexedBlock.builder()
+            .number(block.getNumber().longValueExact())
+            .hash(block.getHash())
+            .parentHash(block.getParentHash())
+            .build();
+    }
+
+    private static AddressTransaction row(String address, long blockNumber, int index, String hash,
+                                          AddressTransaction.Direction direction) {
+        return AddressTransaction.builder()
+            .address(address)
+            .blockNumber(blockNumber)
+            .transactionIndex(index)
+            .transactionHash(hash)
+            .direction(direction)
+            .build();
+    }
+
+    private EthBlock.Block fetchBlock(long number, boolean fullTransactions) {
+        return batchDispatcher.submit(web3j.ethGetBlockByNumber(
+                DefaultBlockParameter.valueOf(BigInteger.valueOf(number)), fullTransactions))
+            .join()
+            .getBlock();
+    }
+
+    private long currentHead() {
+        if (headTracker.hasHead()) {
+            return headTracker.currentBlock().longValueExact();
+        }
+        return batchDispatcher.submit(web3j.ethBlockNumber()).join().getBlockNumber().longValueExact();
+    }
+
+    private void saveCheckpoint(long blockNumber) {
+        checkpointRepository.save(new IndexerCheckpoint(CHECKPOINT, blockNumber));
+    }
+
+    private static long[] decodeCursor(String cursor) {
+        String[] parts = cursor.split(":");
+        try {
+            if (parts.length == 2) {
+                return new long[]{Long.parseLong(parts[0]), Integer.parseInt(parts[1])};
+            }
+        } catch (NumberFormatException e) {
+            // Fall through to the error below
+        }
+        throw new IllegalArgumentException("Invalid cursor: " + cursor);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ingestExecutor.shutdownNow();
+        backfillExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,274 @@
+package com.example.demo.service;
+
+import com.example.demo.config.Web3jConfig;
+import com.example.demo.exception.Web3jException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Component;
+import org.web3j.crypto.Credentials;
+import org.web3j.crypto.Hash;
+import org.web3j.crypto.RawTransaction;
+import org.web3j.crypto.TransactionEncoder;
+import org.web3j.crypto.WalletUtils;
+import org.web3j.protocol.Web3j;
+import org.web3j.utils.Numeric;
+
+import java.math.BigInteger;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends ETH through four stages, each on its own executor with a bounded
+ * queue: prepare (validate, gas, fees, nonce), sign on a CPU-sized pool,
+ * broadcast through the JSON-RPC batcher, and hand-off to receipt tracking
+ * via {@link TransactionBroadcastEvent}. A full queue fails the send right
+ * away instead of blocking the caller.
+ */
+@Slf4j
+@Component
+public class TransactionSendPipeline {
+
+    private final Web3j web3j;
+    private final Web3jBatchDispatcher batchDispatcher;
+    private final IWeb3jService web3jService;
+    private final GasPriceOracle gasPriceOracle;
+    private final GasEstimationEngine gasEstimationEngine;
+    private final NonceManager nonceManager;
+    private final SignerRegistry signerRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Web3jConfig.Send config;
+    private final MeterRegistry meterRegistry;
+
+    private final ThreadPoolExecutor prepareStage;
+    private final ThreadPoolExecutor signStage;
+    private final ThreadPoolExecutor broadcastStage;
+    // Bounds broadcasts awaiting a node reply, so the batcher is fed without piling up
+    private final Semaphore inFlightBroadcasts;
+    private volatile Long chainId;
+
+    public TransactionSendPipeline(Web3j web3j, Web3jBatchDispatcher batchDispatcher, IWeb3jService web3jService,
+                                   GasPriceOracle gasPriceOracle, GasEstimationEngine gasEstimationEngine,
+                                   NonceManager nonceManager, SignerRegistry signerRegistry,
+                                   ApplicationEventPublisher eventPublisher, Web3jConfig web3jConfig,
+                                   MeterRegistry meterRegistry) {
+        this.web3j = web3j;
+        this.batchDispatcher = batchDispatcher;
+        this.web3jService = web3jService;
+        this.gasPriceOracle = gasPriceOracle;
+        this.gasEstimationEngine = gasEstimationEngine;
+        this.nonceManager = nonceManager;
+        this.signerRegistry = signerRegistry;
+        this.eventPublisher = eventPublisher;
+        this.config = web3jConfig.getSend();
+        this.meterRegistry = meterRegistry;
+
+        int signThreads = config.getSignThreads() > 0 ? config.getSignThreads() : Runtime.getRuntime().availableProcessors();
+        this.prepareStage = stage("prepare", config.getPrepareThreads(), config.getPrepareQueueSize());
+        this.signStage = stage("sign", signThreads, config.getSignQueueSize());
+        this.broadcastStage = stage("broadcast", 1, config.getBroadcastQueueSize());
+        this.inFlightBroadcasts = new Semaphore(config.getMaxInFlightBroadcasts());
+        Gauge.builder("wallet.send.inflight", inFlightBroadcasts,
+                semaphore -> config.getMaxInFlightBroadcasts() - semaphore.availablePermits())
+            .register(meterRegistry);
+    }
+
+    /**
+     * Queues a transfer of {@code value} wei on behalf of {@code caller}; completes
+     * once the node has accepted it, or fails if the caller may not send from {@code from}.
+     */
+    public CompletableFuture<SendResult> submit(String caller, String from, String to, BigInteger value) {
+        Send send = new Send(caller, from, to, value, new CompletableFuture<>());
+        enqueue(prepareStage, "prepare", send, () -> prepare(send));
+        return send.result;
+    }
+
+    private void prepare(Send send) {
+        timed("prepare", () -> {
+            if (!WalletUtils.isValidAddress(send.from) || !WalletUtils.isValidAddress(send.to)) {
+                throw new IllegalArgumentException("Invalid sender or recipient address");
+            }
+            if (send.value == null || send.value.signum() <= 0) {
+                throw new IllegalArgumentException("Amount must be positive");
+            }
+            // Same answer for a foreign wallet and an unknown one, so callers cannot probe which keys exist
+            send.credentials = signerRegistry.credentialsFor(send.from, send.caller)
+                .orElseThrow(() -> new AccessDeniedException("Not allowed to send from " + send.from));
+            send.gasLimit = gasEstimationEngine.estimate(send.from, send.to, send.value);
+            send.nonce = nonceManager.acquire(send.from);
+
+            GasOracleSnapshot fees = gasPriceOracle.snapshot();
+            send.transaction = fees != null
+                ? RawTransaction.createEtherTransaction(chainId(), send.nonce, send.gasLimit, send.to, send.value,
+                    fees.standardPriorityFee(), fees.maxFeePerGas(fees.standardPriorityFee()))
+                : RawTransaction.createEtherTransaction(send.nonce, web3jService.getGasPrice(), send.gasLimit,
+                    send.to, send.value);
+        });
+        enqueue(signStage, "sign", send, () -> sign(send));
+    }
+
+    private void sign(Send send) {
+        timed("sign", () -> send.signed = Numeric.toHexString(
+            TransactionEncoder.signMessage(send.transaction, chainId(), send.credentials)));
+        enqueue(broadcastStage, "broadcast", send, () -> broadcast(send));
+    }
+
+    private void broadcast(Send send) {
+        inFlightBroadcasts.acquireUninterruptibly();
+        long started = System.nanoTime();
+        batchDispatcher.submit(web3j.ethSendRawTransaction(send.signed)).whenComplete((response, error) -> {
+            inFlightBroadcasts.release();
+            meterRegistry.timer("wallet.send.stage", "stage", "broadcast")
+                .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            if (error == null) {
+                accepted(send, response.getTransactionHash());
+            } else {
+                broadcastFailed(send, error instanceof CompletionException ? error.getCause() : error);
+            }
+        });
+    }
+
+    private void accepted(Send send, String hash) {
+        SendResult result = new SendResult(hash, send.from, send.to, send.value, send.nonce, send.gasLimit);
+        outcome("broadcast");
+        send.result.complete(result);
+        eventPublisher.publishEvent(new TransactionBroadcastEvent(hash, send.from, send.to, send.nonce));
+    }
+
+    private void broadcastFailed(Send send, Throwable error) {
+        // A JSON-RPC error means the node rejected the transaction; an I/O error leaves it unknown
+        if (error instanceof Web3jException) {
+            if (NonceManager.isNonceTooLow(error.getMessage()) && send.attempt < config.getMaxNonceRetries()) {
+                log.debug("Nonce {} of {} was taken, resyncing and retrying", send.nonce, send.from);
+                send.attempt++;
+                send.nonce = null;
+                send.signed = null;
+                enqueue(prepareStage, "prepare", send, () -> {
+                    nonceManager.resync(send.from);
+                    prepare(send);
+                });
+                return;
+            }
+            if (!NonceManager.isNonceTooLow(error.getMessage())) {
+                nonceManager.release(send.from, send.nonce);
+            }
+            fail(send, error);
+            return;
+        }
+        reconcile(send, error);
+    }
+
+    // Asks the node whether the broadcast landed, so the nonce is neither lost as a gap nor handed out twice
+    private void reconcile(Send send, Throwable error) {
+        String hash = Hash.sha3(send.signed);
+        batchDispatcher.submit(web3j.ethGetTransactionByHash(hash)).whenComplete((response, lookupError) -> {
+            if (lookupError == null && response.getTransaction().isPresent()) {
+                log.info("Broadcast of {} failed with \"{}\" but the node has it", hash, error.getMessage());
+                accepted(send, hash);
+                return;
+            }
+            if (lookupError == null) {
+                nonceManager.release(send.from, send.nonce);
+            } else {
+                // Still unknown; the next send reseeds the sender from its pending count
+                log.warn("Could not tell whether {} reached the node, resetting nonces of {}", hash, send.from);
+                nonceManager.reset(send.from);
+            }
+            fail(send, error);
+        });
+    }
+
+    private void enqueue(ThreadPoolExecutor stage, String name, Send send, Runnable task) {
+        try {
+            stage.execute(() -> {
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    if (send.nonce != null && send.signed == null) {
+                        nonceManager.release(send.from, send.nonce);
+                    }
+                    fail(send, e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            outcome("rejected");
+            if (send.nonce != null) {
+                nonceManager.release(send.from, send.nonce);
+            }
+            send.result.completeExceptionally(new Web3jException("Send pipeline is saturated at the " + name + " stage"));
+        }
+    }
+
+    private void fail(Send send, Throwable error) {
+        outcome("failed");
+        log.warn("Send from {} to {} failed: {}", send.from, send.to, error.getMessage());
+        send.result.completeExceptionally(error);
+    }
+
+    private long chainId() {
+        Long id = chainId;
+        if (id == null) {
+            id = Long.parseLong(web3jService.getNetworkId());
+            chainId = id;
+        }
+        return id;
+    }
+
+    private ThreadPoolExecutor stage(String name, int threads, int queueSize) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueSize), new CustomizableThreadFactory("send-" + name + "-"),
+            new ThreadPoolExecutor.AbortPolicy());
+        Gauge.builder("wallet.send.queue", executor, e -> e.getQueue().size())
+            .tag("stage", name)
+            .register(meterRegistry);
+        return executor;
+    }
+
+    private void timed(String stage, Runnable work) {
+        Timer.builder("wallet.send.stage").tag("stage", stage).register(meterRegistry).record(work);
+    }
+
+    private void outcome(String outcome) {
+        Counter.builder("wallet.send.result").tag("outcome", outcome).register(meterRegistry).increment();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        prepareStage.shutdown();
+        signStage.shutdown();
+        broadcastStage.shutdown();
+    }
+
+    private static final class Send {
+        final String caller;
+        final String from;
+        final String to;
+        final BigInteger value;
+        final CompletableFuture<SendResult> result;
+        Credentials credentials;
+        BigInteger gasLimit;
+        BigInteger nonce;
+        RawTransaction transaction;
+        String signed;
+        int attempt;
+
+        Send(String caller, String from, String to, BigInteger value, CompletableFuture<SendResult> result) {
+            this.caller = caller;
+            this.from = from;
+            this.to = to;
+            this.value = value;
+            this.result = result;
+        }
+    }
+}
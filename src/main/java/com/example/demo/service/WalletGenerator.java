@@ -0,0 +1,169 @@
+package com.example.demo.service;
+
+import com.example.demo.config.WalletConfig;
+import com.example.demo.exception.Web3jException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.web3j.crypto.ECKeyPair;
+import org.web3j.crypto.Keys;
+import org.web3j.crypto.Wallet;
+import org.web3j.crypto.WalletFile;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Generates wallets ahead of demand. Key generation and the scrypt keystore
+ * encryption run on minimum-priority threads that keep a bounded pool full,
+ * so CREATE_WALLET is normally a pool pop; an empty pool falls back to
+ * generating on the caller's thread. The scrypt cost comes from
+ * {@code wallet.kdf}.
+ * <p>
+ * A STANDARD derivation holds about 256 MiB of scrypt memory, so bulk creation
+ * runs on {@code wallet.bulk-threads} threads regardless of CPU count and only
+ * one bulk request is served at a time; a second one is rejected rather than
+ * queued behind it.
+ */
+@Slf4j
+@Component
+public class WalletGenerator {
+
+    // Wallet.createLight / Wallet.createStandard parameters
+    private static final int N_LIGHT = 1 << 12;
+    private static final int P_LIGHT = 6;
+    private static final int N_STANDARD = 1 << 18;
+    private static final int P_STANDARD = 1;
+
+    private final WalletConfig config;
+    private final int scryptN;
+    private final int scryptP;
+    private final BlockingQueue<GeneratedWallet> pool;
+    private final ExecutorService refillExecutor;
+    private final ExecutorService bulkExecutor;
+    private final Semaphore bulkSlot = new Semaphore(1);
+
+    public WalletGenerator(WalletConfig config) {
+        this.config = config;
+        WalletConfig.Kdf kdf = config.getKdf();
+        switch (kdf.getStrength()) {
+            case LIGHT -> {
+                this.scryptN = N_LIGHT;
+                this.scryptP = P_LIGHT;
+            }
+            case STANDARD -> {
+                this.scryptN = N_STANDARD;
+                this.scryptP = P_STANDARD;
+            }
+            default -> {
+                this.scryptN = kdf.getN();
+                this.scryptP = kdf.getP();
+            }
+        }
+        this.pool = new ArrayBlockingQueue<>(Math.max(1, config.getPool().getSize()));
+
+        CustomizableThreadFactory refillThreads = new CustomizableThreadFactory("wallet-pool-");
+        refillThreads.setThreadPriority(Thread.MIN_PRIORITY);
+        refillThreads.setDaemon(true);
+        this.refillExecutor = Executors.newFixedThreadPool(Math.max(1, config.getPool().getRefillThreads()), refillThreads);
+
+        this.bulkExecutor = Executors.newFixedThreadPool(Math.max(1, config.getBulkThreads()),
+            new CustomizableThreadFactory("wallet-bulk-"));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!config.getPool().isEnabled()) {
+            return;
+        }
+        for (int i = 0; i < config.getPool().getRefillThreads(); i++) {
+            refillExecutor.execute(this::refill);
+        }
+        log.info("Wallet pool refilling to {} keystores with scrypt n={} p={}", config.getPool().getSize(), scryptN, scryptP);
+    }
+
+    /**
+     * A ready wallet from the pool, or a freshly generated one when it has run dry.
+     */
+    public GeneratedWallet take() {
+        GeneratedWallet wallet = pool.poll();
+        if (wallet == null) {
+            log.debug("Wallet pool is empty, generating inline");
+            wallet = generate();
+        }
+        return wallet;
+    }
+
+    /**
+     * Takes what the pool has and generates the rest on the bulk threads. Fails with
+     * {@link RejectedExecutionException} while another bulk request is still running.
+     */
+    public CompletableFuture<List<GeneratedWallet>> create(int count) {
+        if (!bulkSlot.tryAcquire()) {
+            return CompletableFuture.failedFuture(
+                new RejectedExecutionException("Another bulk wallet creation is running, try again later"));
+        }
+        List<GeneratedWallet> wallets = new ArrayList<>(count);
+        pool.drainTo(wallets, count);
+        List<CompletableFuture<GeneratedWallet>> generating = new ArrayList<>(count - wallets.size());
+        try {
+            for (int i = wallets.size(); i < count; i++) {
+                generating.add(CompletableFuture.supplyAsync(this::generate, bulkExecutor));
+            }
+        } catch (RejectedExecutionException e) {
+            bulkSlot.release();
+            return CompletableFuture.failedFuture(e);
+        }
+        return CompletableFuture.allOf(generating.toArray(CompletableFuture[]::new))
+            .whenComplete((v, error) -> bulkSlot.release())
+            .thenApply(v -> {
+                generating.forEach(future -> wallets.add(future.join()));
+                return wallets;
+            });
+    }
+
+    public int available() {
+        return pool.size();
+    }
+
+    private GeneratedWallet generate() {
+        try {
+            ECKeyPair keyPair = Keys.createEcKeyPair();
+            String password = UUID.randomUUID().toString();
+            WalletFile keystore = Wallet.create(password, keyPair, scryptN, scryptP);
+            return new GeneratedWallet("0x" + keystore.getAddress(), password, keystore);
+        } catch (Exception e) {
+            throw new Web3jException("Failed to generate wallet", e);
+        }
+    }
+
+    // put blocks while the pool is full, so an idle refill thread costs nothing
+    private void refill() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                pool.put(generate());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.warn("Wallet pool refill failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refillExecutor.shutdownNow();
+        bulkExecutor.shutdown();
+    }
+}
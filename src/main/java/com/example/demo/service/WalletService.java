@@ -10,12 +10,15 @@ import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.amqp.support.AmqpHeaders;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Service;
-import org.web3j.crypto.WalletUtils;
+import org.web3j.utils.Convert;
 
 import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Slf4j
 @Service
@@ -24,52 +27,88 @@ import java.util.concurrent.CompletableFuture;
 public class WalletService {
 
     private final IWeb3jService web3jService;
+    private final TransactionIndexer transactionIndexer;
+    private final TransactionSendPipeline sendPipeline;
+    private final WalletGenerator walletGenerator;
+    private final KeystoreStore keystoreStore;
 
+    /**
+     * The reply goes to the request's reply-to address once the future
+     * completes; errors are replied as error responses rather than dropped.
+     */
     @RabbitHandler
-    public void processOperation(WalletOperation operation,
+    public CompletableFuture<Web3Response<Map<String, Object>>> processOperation(WalletOperation operation,
                                @Header(AmqpHeaders.MESSAGE_ID) String messageId,
                                @Header("operationType") String operationType) {
         log.debug("Processing wallet operation: {} with messageId: {}", operation, messageId);
 
-        CompletableFuture.runAsync(() -> {
-            try {
-                switch (WalletOperation.OperationType.valueOf(operationType)) {
-                    case CREATE_WALLET -> {
-                        String walletFile = WalletUtils.generateNewWalletFile(
-                            UUID.randomUUID().toString(),
-                            null
-                        );
-                        operation.setResult(Web3Response.success(Map.of(
-                            "walletFile", walletFile
-                        )));
-                    }
-                    case GET_BALANCE -> {
-                        BigDecimal balance = web3jService.getEthBalance(operation.getAddress());
-                        operation.setResult(Web3Response.success(Map.of(
-                            "address", operation.getAddress(),
-                            "balance", balance
-                        )));
-                    }
-                    case SEND_ETH -> {
-                        // Implementation for sending ETH
-                        operation.setResult(Web3Response.success(Map.of(
-                            "from", operation.getAddress(),
-                            "to", operation.getToAddress(),
-                            "amount", operation.getAmount()
-                        )));
-                    }
-                    case GET_TRANSACTION_HISTORY -> {
-                        operation.setResult(Web3Response.success(Map.of(
-                            "address", operation.getAddress(),
-                            "message", "Transaction history feature to be implemented"
-                        )));
-                    }
+        CompletableFuture<Web3Response<Map<String, Object>>> response;
+        try {
+            response = handle(WalletOperation.OperationType.valueOf(operationType), operation);
+        } catch (Exception e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+        return response
+            .whenComplete((result, error) -> {
+                if (error == null) {
+                    log.debug("Wallet operation processed successfully: {}", operation);
                 }
-                log.debug("Wallet operation processed successfully: {}", operation);
-            } catch (Exception e) {
-                log.error("Failed to process wallet operation: {}", operation, e);
-                operation.setResult(Web3Response.error(e.getMessage()));
+            })
+            .exceptionally(error -> {
+                Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                log.error("Failed to process wallet operation: {}", operation, cause);
+                return Web3Response.error(cause.getMessage());
+            });
+    }
+
+    private CompletableFuture<Web3Response<Map<String, Object>>> handle(WalletOperation.OperationType type,
+                                                                         WalletOperation operation) {
+        return switch (type) {
+            case CREATE_WALLET -> {
+                // Key and keystore come pre-generated, only the insert happens here
+                GeneratedWallet wallet = walletGenerator.take();
+                keystoreStore.save(wallet, operation.getRequestedBy());
+                yield CompletableFuture.completedFuture(Web3Response.success(Map.of(
+                    "address", wallet.address()
+                )));
+            }
+            case GET_BALANCE -> {
+                BigDecimal balance = web3jService.getEthBalance(operation.getAddress());
+                yield CompletableFuture.completedFuture(Web3Response.success(Map.of(
+                    "address", operation.getAddress(),
+                    "balance", balance
+                )));
+            }
+            case SEND_ETH -> {
+                BigInteger value = Convert.toWei(operation.getAmount(), Convert.Unit.ETHER).toBigIntegerExact();
+                // Completes on the pipeline's threads, the listener thread is free right away
+                yield sendPipeline.submit(operation.getRequestedBy(), operation.getAddress(), operation.getToAddress(), value)
+                    .thenApply(sent -> Web3Response.success(Map.<String, Object>of(
+                        "transactionHash", sent.transactionHash(),
+                        "from", sent.from(),
+                        "to", sent.to(),
+                        "amount", operation.getAmount(),
+                        "nonce", sent.nonce()
+                    )));
+            }
+            case GET_TRANSACTION_HISTORY -> {
+                TransactionHistoryPage page = transactionIndexer.getHistory(operation.getAddress(),
+                    operation.getCursor(), operation.getLimit() != null ? operation.getLimit() : 50);
+                List<Map<String, Object>> transactions = page.transactions().stream()
+                    .map(tx -> Map.<String, Object>of(
+                        "blockNumber", tx.getBlockNumber(),
+                        "transactionIndex", tx.getTransactionIndex(),
+                        "hash", tx.getTransactionHash(),
+                        "direction", tx.getDirection()
+                    ))
+                    .toList();
+                Map<String, Object> result = new HashMap<>();
+                result.put("address", operation.getAddress());
+                result.put("transactions", transactions);
+                result.put("indexedThrough", page.indexedThrough());
+                result.put("nextCursor", page.nextCursor());
+                yield CompletableFuture.completedFuture(Web3Response.success(result));
             }
-        });
+        };
     }
 }
@@ -0,0 +1,159 @@
+package com.example.demo.service;
+
+import com.example.demo.config.MessagingConfig;
+import com.example.demo.config.RabbitMQConfig;
+import com.example.demo.dto.Web3Operation;
+import com.example.demo.dto.Web3Response;
+import com.rabbitmq.client.Channel;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.messaging.Message;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.web3j.crypto.WalletUtils;
+import org.web3j.utils.Convert;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Consumes the web3 operation queues in batches instead of one delivery at a
+ * time. A batch is grouped by operation type: balances become one multicall,
+ * everything else runs concurrently so the calls land in the same JSON-RPC
+ * batches. Each message is replied to and acknowledged on its own, so one
+ * bad operation never holds back the rest of its batch.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "messaging.batch", name = "enabled", havingValue = "true")
+public class Web3BatchConsumer {
+
+    private final Web3OperationHandler operationHandler;
+    private final IWeb3jService web3jService;
+    private final RabbitTemplate rabbitTemplate;
+    private final ExecutorService executor;
+
+    public Web3BatchConsumer(Web3OperationHandler operationHandler, IWeb3jService web3jService,
+                             RabbitTemplate rabbitTemplate, MessagingConfig messagingConfig) {
+        this.operationHandler = operationHandler;
+        this.web3jService = web3jService;
+        this.rabbitTemplate = rabbitTemplate;
+        this.executor = Executors.newFixedThreadPool(messagingConfig.getBatch().getParallelism(),
+            new CustomizableThreadFactory("web3-batch-"));
+    }
+
+    // One container per lane, so a batch of heavy operations never delays light ones
+    @RabbitListener(queues = RabbitMQConfig.WEB3_LIGHT_QUEUE, containerFactory = "web3BatchContainerFactory")
+    public void processLight(List<Message<Web3Operation>> messages, Channel channel) throws IOException {
+        processBatch(messages, channel);
+    }
+
+    @RabbitListener(queues = RabbitMQConfig.WEB3_STANDARD_QUEUE, containerFactory = "web3BatchContainerFactory")
+    public void processStandard(List<Message<Web3Operation>> messages, Channel channel) throws IOException {
+        processBatch(messages, channel);
+    }
+
+    @RabbitListener(queues = RabbitMQConfig.WEB3_HEAVY_QUEUE, containerFactory = "web3BatchContainerFactory")
+    public void processHeavy(List<Message<Web3Operation>> messages, Channel channel) throws IOException {
+        processBatch(messages, channel);
+    }
+
+    // Drains the shared queue that nodes without cost-class routing still publish to
+    @RabbitListener(queues = RabbitMQConfig.WEB3_QUEUE, containerFactory = "web3BatchContainerFactory")
+    public void processShared(List<Message<Web3Operation>> messages, Channel channel) throws IOException {
+        processBatch(messages, channel);
+    }
+
+    private void processBatch(List<Message<Web3Operation>> messages, Channel channel) throws IOException {
+        log.debug("Processing batch of {} operations", messages.size());
+        // Every operation here reads at the latest block, so the type alone decides the group
+        Map<Web3Operation.OperationType, List<Message<Web3Operation>>> groups = new EnumMap<>(Web3Operation.OperationType.class);
+        for (Message<Web3Operation> message : messages) {
+            groups.computeIfAbsent(message.getPayload().getType(), type -> new ArrayList<>()).add(message);
+        }
+
+        Map<Message<Web3Operation>, CompletableFuture<Void>> replies = new IdentityHashMap<>(messages.size());
+        groups.forEach((type, group) -> {
+            if (type == Web3Operation.OperationType.GET_BALANCE) {
+                balances(group, replies);
+            } else {
+                for (Message<Web3Operation> message : group) {
+                    replies.put(message, CompletableFuture
+                        .supplyAsync(() -> operationHandler.handle(message.getPayload()), executor)
+                        .thenAccept(response -> reply(message, response)));
+                }
+            }
+        });
+
+        // Acks go out on the listener thread, channels are not safe to share
+        for (Message<Web3Operation> message : messages) {
+            long deliveryTag = message.getHeaders().get(AmqpHeaders.DELIVERY_TAG, Long.class);
+            try {
+                replies.get(message).join();
+                channel.basicAck(deliveryTag, false);
+            } catch (Exception e) {
+                log.error("Failed to reply to operation: {}", message.getPayload(), e);
+                channel.basicNack(deliveryTag, false, false);
+            }
+        }
+    }
+
+    // One multicall for the whole group; a failed multicall falls back to single reads
+    private void balances(List<Message<Web3Operation>> group,
+                          Map<Message<Web3Operation>, CompletableFuture<Void>> replies) {
+        List<String> addresses = group.stream()
+            .map(message -> message.getPayload().getAddress())
+            .filter(address -> address != null && WalletUtils.isValidAddress(address))
+            .toList();
+        CompletableFuture<Map<String, BigInteger>> balances = web3jService.getEthBalances(addresses)
+            .exceptionally(error -> {
+                log.warn("Batched balance lookup failed, reading one by one: {}", error.getMessage());
+                return Map.of();
+            });
+
+        for (Message<Web3Operation> message : group) {
+            Web3Operation operation = message.getPayload();
+            replies.put(message, balances.thenApplyAsync(values -> {
+                BigInteger wei = operation.getAddress() != null ? values.get(operation.getAddress().toLowerCase()) : null;
+                return wei != null
+                    ? Web3Response.<Map<String, Object>>success(Map.of(
+                        "address", operation.getAddress(),
+                        "balance", Convert.fromWei(wei.toString(), Convert.Unit.ETHER)
+                    ))
+                    : operationHandler.handle(operation);
+            }, executor).thenAccept(response -> reply(message, response)));
+        }
+    }
+
+    private void reply(Message<Web3Operation> message, Web3Response<Map<String, Object>> response) {
+        String replyTo = message.getHeaders().get(AmqpHeaders.REPLY_TO, String.class);
+        if (replyTo == null) {
+            return;
+        }
+        String correlationId = message.getHeaders().get(AmqpHeaders.CORRELATION_ID, String.class);
+        MessagePostProcessor correlate = reply -> {
+            reply.getMessageProperties().setCorrelationId(correlationId);
+            return reply;
+        };
+        // Direct reply-to addresses are published to through the default exchange
+        rabbitTemplate.convertAndSend("", replyTo, response, correlate);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
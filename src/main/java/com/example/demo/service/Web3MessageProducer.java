@@ -2,11 +2,12 @@ package com.example.demo.service;
 
 import com.example.demo.config.RabbitMQConfig;
 import com.example.demo.dto.Web3Operation;
+import com.example.demo.dto.Web3Response;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 @Slf4j
@@ -14,21 +15,21 @@ import java.util.concurrent.CompletableFuture;
 @RequiredArgsConstructor
 public class Web3MessageProducer {
 
-    private final RabbitTemplate rabbitTemplate;
+    private final OperationPublisher publisher;
 
-    public CompletableFuture<Void> sendOperation(Web3Operation operation) {
-        return CompletableFuture.runAsync(() -> {
-            try {
-                rabbitTemplate.convertAndSend(
-                    RabbitMQConfig.WEB3_EXCHANGE,
-                    RabbitMQConfig.WEB3_ROUTING_KEY,
-                    operation
-                );
-                log.debug("Sent operation to queue: {}", operation);
-            } catch (Exception e) {
-                log.error("Failed to send operation to queue: {}", operation, e);
-                throw new RuntimeException("Failed to send operation to queue", e);
+    /**
+     * Publishes the operation and completes with the consumer's reply, or fails if the broker rejects it.
+     */
+    public CompletableFuture<Web3Response<Map<String, Object>>> sendOperation(Web3Operation operation) {
+        log.debug("Sending operation to queue: {}", operation);
+        return publisher.publish(
+            RabbitMQConfig.WEB3_EXCHANGE,
+            RabbitMQConfig.web3RoutingKey(operation.getType()),
+            operation,
+            message -> {
+                message.getMessageProperties().setMessageId(operation.getId());
+                return message;
             }
-        });
+        );
     }
 }
@@ -0,0 +1,51 @@
+package com.example.demo.service;
+
+import com.example.demo.config.MessagingConfig;
+import com.example.demo.dto.Web3Operation;
+import com.example.demo.dto.Web3Response;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Decides per operation type whether a {@link Web3Operation} runs in the
+ * calling thread or goes through RabbitMQ. Reads answered from the head,
+ * gas oracle or block-scoped caches cost microseconds locally, far less than
+ * serializing them through the broker and back.
+ */
+@Slf4j
+@Component
+public class Web3OperationDispatcher {
+
+    private final Web3OperationHandler operationHandler;
+    private final Web3MessageProducer messageProducer;
+    private final Map<Web3Operation.OperationType, MessagingConfig.DispatchMode> modes =
+        new EnumMap<>(Web3Operation.OperationType.class);
+
+    public Web3OperationDispatcher(Web3OperationHandler operationHandler, Web3MessageProducer messageProducer,
+                                   MessagingConfig messagingConfig) {
+        this.operationHandler = operationHandler;
+        this.messageProducer = messageProducer;
+        MessagingConfig.Dispatch config = messagingConfig.getDispatch();
+        for (Web3Operation.OperationType type : Web3Operation.OperationType.values()) {
+            MessagingConfig.DispatchMode mode = config.getOperations().getOrDefault(type, config.getMode());
+            if (mode == MessagingConfig.DispatchMode.HYBRID) {
+                // Light operations are answered from memory or a cache in the common case
+                mode = type.getCostClass() == Web3Operation.CostClass.LIGHT
+                    ? MessagingConfig.DispatchMode.LOCAL : MessagingConfig.DispatchMode.BROKER;
+            }
+            modes.put(type, mode);
+        }
+        log.info("Web3 operation dispatch: {}", modes);
+    }
+
+    public CompletableFuture<Web3Response<Map<String, Object>>> dispatch(Web3Operation operation) {
+        if (modes.get(operation.getType()) == MessagingConfig.DispatchMode.LOCAL) {
+            return CompletableFuture.completedFuture(operationHandler.handle(operation));
+        }
+        return messageProducer.sendOperation(operation);
+    }
+}
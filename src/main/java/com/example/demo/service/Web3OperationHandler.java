@@ -0,0 +1,108 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.Web3Operation;
+import com.example.demo.dto.Web3Response;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.web3j.protocol.core.methods.response.EthBlock;
+import org.web3j.protocol.core.methods.response.Transaction;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.web3j.utils.Convert;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Map;
+
+/**
+ * Executes a {@link Web3Operation}, for the queue consumer and for in-process
+ * dispatch alike. Failures come back as error responses.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class Web3OperationHandler {
+
+    private final IWeb3jService web3jService;
+
+    public Web3Response<Map<String, Object>> handle(Web3Operation operation) {
+        log.debug("Processing operation: {}", operation);
+        try {
+            Web3Response<Map<String, Object>> response = execute(operation);
+            log.debug("Operation processed successfully: {}", operation);
+            return response;
+        } catch (Exception e) {
+            log.error("Failed to process operation: {}", operation, e);
+            return Web3Response.error(e.getMessage());
+        }
+    }
+
+    private Web3Response<Map<String, Object>> execute(Web3Operation operation) {
+        return switch (operation.getType()) {
+            case GET_BALANCE -> {
+                BigDecimal balance = web3jService.getEthBalance(operation.getAddress());
+                yield Web3Response.success(Map.of(
+                    "address", operation.getAddress(),
+                    "balance", balance
+                ));
+            }
+            case GET_TRANSACTION_COUNT -> {
+                BigInteger count = web3jService.getTransactionCount(operation.getAddress());
+                yield Web3Response.success(Map.of(
+                    "address", operation.getAddress(),
+                    "transactionCount", count
+                ));
+            }
+            case GET_GAS_PRICE -> {
+                BigInteger gasPrice = web3jService.getGasPrice();
+                yield Web3Response.success(Map.of(
+                    "gasPrice", gasPrice,
+                    "gasPriceEth", Convert.fromWei(gasPrice.toString(), Convert.Unit.GWEI)
+                ));
+            }
+            case GET_LATEST_BLOCK -> {
+                BigInteger blockNumber = web3jService.getLatestBlockNumber();
+                yield Web3Response.success(Map.of(
+                    "latestBlockNumber", blockNumber
+                ));
+            }
+            case GET_BLOCK -> {
+                EthBlock.Block block = web3jService.getBlockByNumber(new BigInteger(operation.getAddress()));
+                yield block != null
+                    ? Web3Response.success(Map.of("block", block))
+                    : Web3Response.error("Block not found: " + operation.getAddress());
+            }
+            case GET_TRANSACTION -> {
+                Transaction transaction = web3jService.getTransactionByHash(operation.getAddress());
+                yield transaction != null
+                    ? Web3Response.success(Map.of("transaction", transaction))
+                    : Web3Response.error("Transaction not found: " + operation.getAddress());
+            }
+            case GET_TRANSACTION_RECEIPT -> {
+                TransactionReceipt receipt = web3jService.getTransactionReceipt(operation.getAddress());
+                yield receipt != null
+                    ? Web3Response.success(Map.of("receipt", receipt))
+                    : Web3Response.error("Receipt not found: " + operation.getAddress());
+            }
+            case GET_NETWORK_INFO -> Web3Response.success(Map.of(
+                "networkId", web3jService.getNetworkId(),
+                "isSyncing", web3jService.isNodeSyncing(),
+                "latestBlock", web3jService.getLatestBlockNumber()
+            ));
+            case ESTIMATE_GAS -> {
+                String[] params = operation.getAddress().split(",");
+                BigInteger gasEstimate = web3jService.estimateGas(
+                    params[0], // from
+                    params[1], // to
+                    new BigDecimal(params[2]) // value
+                );
+                yield Web3Response.success(Map.of(
+                    "from", params[0],
+                    "to", params[1],
+                    "value", params[2],
+                    "gasEstimate", gasEstimate
+                ));
+            }
+        };
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.demo.service;
+
+import com.example.demo.config.Web3jConfig;
+import com.example.demo.exception.Web3jException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Coalesces JSON-RPC calls that arrive within a short window into a single
+ * web3j {@link BatchRequest} and completes each caller's future from the
+ * matching batch response.
+ */
+@Slf4j
+@Component
+public class Web3jBatchDispatcher {
+
+    private final Web3j web3j;
+    private final Web3jConfig.Batch config;
+    private final Queue<PendingCall<?>> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService sender;
+
+    public Web3jBatchDispatcher(Web3j web3j, Web3jConfig web3jConfig) {
+        this.web3j = web3j;
+        this.config = web3jConfig.getBatch();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("rpc-batch-timer-"));
+        this.sender = Executors.newFixedThreadPool(config.getSenderThreads(), new CustomizableThreadFactory("rpc-batch-"));
+    }
+
+    public <R extends Response<?>> CompletableFuture<R> submit(Request<?, R> request) {
+        if (!config.isEnabled()) {
+            return request.sendAsync().thenApply(Web3jBatchDispatcher::checkError);
+        }
+
+        PendingCall<R> call = new PendingCall<>(request);
+        queue.add(call);
+        if (queued.incrementAndGet() >= config.getMaxSize()) {
+            sender.execute(this::flushFullBatch);
+        } else if (flushScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(this::flushWindow, config.getWindowMillis(), TimeUnit.MILLISECONDS);
+        }
+        return call.future;
+    }
+
+    private void flushFullBatch() {
+        List<PendingCall<?>> batch = drain();
+        if (!batch.isEmpty()) {
+            send(batch);
+        }
+    }
+
+    private void flushWindow() {
+        flushScheduled.set(false);
+        List<PendingCall<?>> batch;
+        while (!(batch = drain()).isEmpty()) {
+            List<PendingCall<?>> calls = batch;
+            sender.execute(() -> send(calls));
+        }
+    }
+
+    private List<PendingCall<?>> drain() {
+        List<PendingCall<?>> batch = new ArrayList<>();
+        PendingCall<?> call;
+        while (batch.size() < config.getMaxSize() && (call = queue.poll()) != null) {
+            batch.add(call);
+        }
+        queued.addAndGet(-batch.size());
+        return batch;
+    }
+
+    private void send(List<PendingCall<?>> calls) {
+        if (calls.size() == 1) {
+            PendingCall<?> call = calls.get(0);
+            call.request.sendAsync().whenComplete((response, error) -> {
+                if (error != null) {
+                    call.future.completeExceptionally(error);
+                } else {
+                    call.complete(response);
+                }
+            });
+            return;
+        }
+
+        Map<Long, PendingCall<?>> byId = new HashMap<>(calls.size() * 2);
+        BatchRequest batch = web3j.newBatch();
+        for (PendingCall<?> call : calls) {
+            byId.put(call.request.getId(), call);
+            batch.add(call.request);
+        }
+
+        try {
+            BatchResponse response = batch.send();
+            for (Response<?> item : response.getResponses()) {
+                PendingCall<?> call = byId.remove(item.getId());
+                if (call != null) {
+                    call.complete(item);
+                }
+            }
+            byId.values().forEach(call -> call.future.completeExceptionally(
+                new Web3jException("No response in batch for " + call.request.getMethod())));
+            log.debug("Sent JSON-RPC batch of {} calls", calls.size());
+        } catch (Exception e) {
+            log.error("Failed to send JSON-RPC batch of {} calls", calls.size(), e);
+            calls.forEach(call -> call.future.completeExceptionally(e));
+        }
+    }
+
+    private static <R extends Response<?>> R checkError(R response) {
+        if (response.hasError()) {
+            throw new Web3jException(response.getError().getMessage());
+        }
+        return response;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+        sender.shutdown();
+    }
+
+    private static final class PendingCall<R extends Response<?>> {
+        private final Request<?, R> request;
+        private final CompletableFuture<R> future = new CompletableFuture<>();
+
+        private PendingCall(Request<?, R> request) {
+            this.request = request;
+        }
+
+        private void complete(Response<?> response) {
+            try {
+                future.complete(checkError(request.getResponseType().cast(response)));
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.example.demo.service;
+
+import com.example.demo.config.Web3jConfig;
+import io.reactivex.Flowable;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.response.EthBlockNumber;
+import org.web3j.protocol.websocket.events.Notification;
+import org.web3j.utils.Async;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Routes JSON-RPC traffic over several endpoints. Each call goes to the
+ * available node with the lowest weighted latency EWMA, reads against
+ * {@code latest}/{@code pending} only go to nodes at the tip, reads at a
+ * block number only to nodes that have reached it, and nodes that
+ * keep failing are ejected until a background probe sees them healthy again,
+ * no sooner than {@code eject-millis} after their last failure.
+ */
+@Slf4j
+public class Web3jNodePool implements org.web3j.protocol.Web3jService {
+
+    private static final Set<String> TIP_METHODS = Set.of(
+        "eth_blockNumber", "eth_gasPrice", "eth_feeHistory", "eth_maxPriorityFeePerGas");
+    // Range queries whose cost grows with the range; the caller shrinks the range when they time out
+    private static final Set<String> RANGE_METHODS = Set.of("eth_getLogs");
+    // A hex quantity param, such as a block number; addresses and hashes are longer
+    private static final Pattern QUANTITY = Pattern.compile("0x[0-9a-fA-F]{1,16}");
+
+    private final List<RpcNode> nodes;
+    private final Web3jConfig.Pool config;
+    private final ScheduledExecutorService prober;
+    private volatile BigInteger tip = BigInteger.ZERO;
+    private volatile boolean closed;
+
+    public Web3jNodePool(List<RpcNode> nodes, Web3jConfig.Pool config) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("At least one Ethereum endpoint must be configured");
+        }
+        this.nodes = List.copyOf(nodes);
+        this.config = config;
+        this.prober = Executors.newScheduledThreadPool(
+            Math.min(nodes.size(), 4), new CustomizableThreadFactory("rpc-probe-"));
+        for (RpcNode node : this.nodes) {
+            prober.scheduleWithFixedDelay(() -> probe(node), 0, config.getProbeIntervalMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public List<RpcNode> getNodes() {
+        return nodes;
+    }
+
+    public BigInteger getTip() {
+        return tip;
+    }
+
+    /**
+     * The node to keep stateful calls on, such as filters that only exist on
+     * the node that created them: the best available node at the tip.
+     */
+    public RpcNode pin() {
+        return select(tipHead(), List.of());
+    }
+
+    @Override
+    public <T extends Response> T send(Request request, Class<T> responseType) throws IOException {
+        return execute(requiredHead(request), isRangeQuery(request),
+            node -> node.getService().send(request, responseType));
+    }
+
+    @Override
+    public <T extends Response> CompletableFuture<T> sendAsync(Request request, Class<T> responseType) {
+        return Async.run(() -> send(request, responseType));
+    }
+
+    @Override
+    public BatchResponse sendBatch(BatchRequest batchRequest) throws IOException {
+        BigInteger requiredHead = null;
+        for (Request<?, ? extends Response<?>> request : batchRequest.getRequests()) {
+            requiredHead = max(requiredHead, requiredHead(request));
+        }
+        boolean rangeQuery = batchRequest.getRequests().stream().allMatch(Web3jNodePool::isRangeQuery);
+        return execute(requiredHead, rangeQuery, node -> node.getService().sendBatch(batchRequest));
+    }
+
+    @Override
+    public CompletableFuture<BatchResponse> sendBatchAsync(BatchRequest batchRequest) {
+        return Async.run(() -> sendBatch(batchRequest));
+    }
+
+    @Override
+    public <T extends Notification<?>> Flowable<T> subscribe(Request request, String unsubscribeMethod,
+                                                            Class<T> responseType) {
+        throw new UnsupportedOperationException("Subscriptions are not supported over the HTTP node pool");
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        prober.shutdownNow();
+        for (RpcNode node : nodes) {
+            node.getService().close();
+        }
+    }
+
+    private <T> T execute(BigInteger requiredHead, boolean rangeQuery, NodeCall<T> call) throws IOException {
+        List<RpcNode> tried = new ArrayList<>(nodes.size());
+        IOException lastError = null;
+        RpcNode node;
+        while ((node = select(requiredHead, tried)) != null) {
+            tried.add(node);
+            long start = System.nanoTime();
+            try {
+                T result = call.apply(node);
+                node.recordSuccess(System.nanoTime() - start, config.getEwmaAlpha());
+                return result;
+            } catch (InterruptedIOException e) {
+                // A range query timing out says the range is too wide, not that the node is unhealthy,
+                // and another node would time out the same way
+                if (rangeQuery) {
+                    throw e;
+                }
+                lastError = e;
+                onFailure(node, e);
+            } catch (IOException e) {
+                lastError = e;
+                onFailure(node, e);
+            }
+        }
+        throw lastError != null ? lastError : new IOException("No Ethereum node available");
+    }
+
+    // Prefers available nodes at the required head, then any available node, then ejected ones as a last resort
+    private RpcNode select(BigInteger requiredHead, List<RpcNode> exclude) {
+        RpcNode caughtUp = null;
+        RpcNode available = null;
+        RpcNode any = null;
+        for (RpcNode node : nodes) {
+            if (exclude.contains(node)) {
+                continue;
+            }
+            any = better(any, node);
+            if (node.isAvailable()) {
+                available = better(available, node);
+                if (requiredHead != null && node.getHead().compareTo(requiredHead) >= 0) {
+                    caughtUp = better(caughtUp, node);
+                }
+            }
+        }
+        if (caughtUp != null) {
+            return caughtUp;
+        }
+        return available != null ? available : any;
+    }
+
+    private BigInteger tipHead() {
+        return tip.subtract(BigInteger.valueOf(config.getMaxHeadLag()));
+    }
+
+    private static RpcNode better(RpcNode current, RpcNode candidate) {
+        return current == null || candidate.score() < current.score() ? candidate : current;
+    }
+
+    // The head a node needs to answer: the tip for latest/pending reads, the block itself for a read
+    // at a block number, null when any node will do
+    private BigInteger requiredHead(Request<?, ?> request) {
+        if (TIP_METHODS.contains(request.getMethod())) {
+            return tipHead();
+        }
+        List<?> params = request.getParams();
+        if (params == null) {
+            return null;
+        }
+        BigInteger required = null;
+        // web3j serialises block tags and numbers into the params as their string value, not the enum
+        for (Object param : params) {
+            String value = String.valueOf(param);
+            if (DefaultBlockParameterName.LATEST.getValue().equals(value)
+                || DefaultBlockParameterName.PENDING.getValue().equals(value)) {
+                return tipHead();
+            }
+            if (QUANTITY.matcher(value).matches()) {
+                required = max(required, new BigInteger(value.substring(2), 16));
+            }
+        }
+        return required;
+    }
+
+    private static BigInteger max(BigInteger a, BigInteger b) {
+        return a == null ? b : b == null ? a : a.max(b);
+    }
+
+    private static boolean isRangeQuery(Request<?, ?> request) {
+        return RANGE_METHODS.contains(request.getMethod());
+    }
+
+    private void onFailure(RpcNode node, IOException e) {
+        int failures = node.recordFailure();
+        log.warn("Call to Ethereum node {} failed ({} consecutive): {}", node.getName(), failures, e.getMessage());
+        if (!node.isAvailable()) {
+            // Still failing while ejected, so the ejection starts over
+            node.eject(System.currentTimeMillis() + config.getEjectMillis());
+        } else if (failures >= config.getFailureThreshold()) {
+            node.eject(System.currentTimeMillis() + config.getEjectMillis());
+            log.warn("Ejected Ethereum node {} for at least {} ms", node.getName(), config.getEjectMillis());
+        }
+    }
+
+    private void probe(RpcNode node) {
+        long start = System.nanoTime();
+        try {
+            EthBlockNumber response = new Request<>(
+                "eth_blockNumber", Collections.<String>emptyList(), node.getService(), EthBlockNumber.class).send();
+            if (response.hasError()) {
+                throw new IOException(response.getError().getMessage());
+            }
+            node.recordSuccess(System.nanoTime() - start, config.getEwmaAlpha());
+            node.updateHead(response.getBlockNumber());
+            updateTip(response.getBlockNumber());
+            if (!node.isAvailable() && node.getEjectedUntil() <= System.currentTimeMillis()) {
+                node.readmit();
+                log.info("Ethereum node {} is healthy again at block {}", node.getName(), node.getHead());
+            }
+        } catch (IOException e) {
+            onFailure(node, e);
+        } catch (RuntimeException e) {
+            log.warn("Probe of Ethereum node {} failed", node.getName(), e);
+        }
+    }
+
+    private synchronized void updateTip(BigInteger head) {
+        if (head.compareTo(tip) > 0) {
+            tip = head;
+        }
+    }
+
+    @FunctionalInterface
+    private interface NodeCall<T> {
+        T apply(RpcNode node) throws IOException;
+    }
+}
@@ -3,26 +3,26 @@ package com.example.demo.service;
 import com.example.demo.config.Web3jConfig;
 import com.example.demo.exception.Web3jException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Retryable;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.web3j.crypto.WalletUtils;
 import org.web3j.protocol.Web3j;
 import org.web3j.protocol.core.DefaultBlockParameter;
 import org.web3j.protocol.core.DefaultBlockParameterName;
-import org.web3j.protocol.core.methods.request.Transaction;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
 import org.web3j.protocol.core.methods.response.EthBlock;
 import org.web3j.protocol.core.methods.response.EthBlockNumber;
 import org.web3j.protocol.core.methods.response.EthChainId;
-import org.web3j.protocol.core.methods.response.EthEstimateGas;
 import org.web3j.protocol.core.methods.response.EthGasPrice;
 import org.web3j.protocol.core.methods.response.EthGetBalance;
-import org.web3j.protocol.core.methods.response.EthGetTransactionCount;
-import org.web3j.protocol.core.methods.response.EthGetTransactionReceipt;
 import org.web3j.protocol.core.methods.response.EthSyncing;
-import org.web3j.protocol.core.methods.response.EthTransaction;
 import org.web3j.protocol.core.methods.response.TransactionReceipt;
 import org.web3j.tx.Transfer;
 import org.web3j.utils.Convert;
@@ -31,7 +31,9 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 @Slf4j
 @Service
@@ -40,14 +42,55 @@ public class Web3jService implements IWeb3jService {
 
     private final Web3j web3j;
     private final Web3jConfig config;
+    private final Web3jBatchDispatcher batchDispatcher;
+    private final InFlightRequestCollapser requestCollapser;
+    private final BlockHeadTracker headTracker;
+    private final TieredChainDataCache chainDataCache;
+    private final MulticallBalanceEngine balanceEngine;
+    private final GasPriceOracle gasPriceOracle;
+    private final GasEstimationEngine gasEstimationEngine;
+    private final MempoolMonitor mempoolMonitor;
+    private final CacheManager cacheManager;
 
-    public Web3jService(Web3j web3j, Web3jConfig config) {
+    public Web3jService(Web3j web3j, Web3jConfig config, Web3jBatchDispatcher batchDispatcher,
+                        InFlightRequestCollapser requestCollapser, BlockHeadTracker headTracker,
+                        TieredChainDataCache chainDataCache, MulticallBalanceEngine balanceEngine,
+                        GasPriceOracle gasPriceOracle, GasEstimationEngine gasEstimationEngine,
+                        MempoolMonitor mempoolMonitor, CacheManager cacheManager) {
         this.web3j = web3j;
         this.config = config;
+        this.batchDispatcher = batchDispatcher;
+        this.requestCollapser = requestCollapser;
+        this.headTracker = headTracker;
+        this.chainDataCache = chainDataCache;
+        this.balanceEngine = balanceEngine;
+        this.gasPriceOracle = gasPriceOracle;
+        this.gasEstimationEngine = gasEstimationEngine;
+        this.mempoolMonitor = mempoolMonitor;
+        this.cacheManager = cacheManager;
+    }
+
+    // Identical in-flight reads share one upstream call, which is itself batched
+    private <R extends Response<?>> R call(Request<?, R> request) {
+        return requestCollapser.collapse(request, batchDispatcher::submit).join();
+    }
+
+    // The head is read once and the node is asked for that exact block, so a lagging node or a head
+    // moving mid-call cannot store another block's value under this block's key
+    private <T> T atHead(String cacheName, String address, Function<DefaultBlockParameter, T> read) {
+        BigInteger head = headTracker.currentBlock();
+        if (head.signum() == 0) {
+            return read.apply(DefaultBlockParameterName.LATEST);
+        }
+        Object key = WalletUtils.isValidAddress(address) ? AddressKey.of(address) : address;
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return read.apply(DefaultBlockParameter.valueOf(head));
+        }
+        return cache.get(new BlockScopedKey(key, head.longValue()), () -> read.apply(DefaultBlockParameter.valueOf(head)));
     }
 
     @Override
-    @Cacheable(value = "ethBalance", key = "#address")
     @Retryable(
         value = {Exception.class},
         maxAttempts = 3,
@@ -55,8 +98,10 @@ public class Web3jService implements IWeb3jService {
     )
     public BigDecimal getEthBalance(String address) {
         try {
-            EthGetBalance balance = web3j.ethGetBalance(address, DefaultBlockParameterName.LATEST).send();
-            return Convert.fromWei(balance.getBalance().toString(), Convert.Unit.ETHER);
+            return atHead("ethBalance", address, block -> {
+                EthGetBalance balance = call(web3j.ethGetBalance(address, block));
+                return Convert.fromWei(balance.getBalance().toString(), Convert.Unit.ETHER);
+            });
         } catch (Exception e) {
             log.error("Failed to get ETH balance for address: {}", address, e);
             throw new RuntimeException("Failed to get ETH balance", e);
@@ -70,7 +115,11 @@ public class Web3jService implements IWeb3jService {
     }
 
     @Override
-    @Cacheable(value = "transactionCount", key = "#address")
+    public CompletableFuture<Map<String, BigInteger>> getEthBalances(List<String> addresses) {
+        return balanceEngine.getBalances(addresses);
+    }
+
+    @Override
     @Retryable(
         value = {Exception.class},
         maxAttempts = 3,
@@ -78,8 +127,8 @@ public class Web3jService implements IWeb3jService {
     )
     public BigInteger getTransactionCount(String address) {
         try {
-            EthGetTransactionCount count = web3j.ethGetTransactionCount(address, DefaultBlockParameterName.LATEST).send();
-            return count.getTransactionCount();
+            return atHead("transactionCount", address,
+                block -> call(web3j.ethGetTransactionCount(address, block)).getTransactionCount());
         } catch (Exception e) {
             log.error("Failed to get transaction count for address: {}", address, e);
             throw new RuntimeException("Failed to get transaction count", e);
@@ -87,7 +136,7 @@ public class Web3jService implements IWeb3jService {
     }
 
     @Override
-    @Cacheable(value = "gasPrice")
+    @Cacheable(value = "gasPrice", keyGenerator = "blockScopedKeyGenerator")
     @Retryable(
         value = {Exception.class},
         maxAttempts = 3,
@@ -95,7 +144,7 @@ public class Web3jService implements IWeb3jService {
     )
     public BigInteger getGasPrice() {
         try {
-            EthGasPrice gasPrice = web3j.ethGasPrice().send();
+            EthGasPrice gasPrice = call(web3j.ethGasPrice());
             return gasPrice.getGasPrice();
         } catch (Exception e) {
             log.error("Failed to get gas price", e);
@@ -103,16 +152,31 @@ public class Web3jService implements IWeb3jService {
         }
     }
 
+    // EIP-1559 fee quotes; getGasPrice stays the node's eth_gasPrice answer for legacy callers
+    @Override
+    public GasOracleSnapshot getGasOracle() {
+        GasOracleSnapshot snapshot = gasPriceOracle.snapshot();
+        if (snapshot == null) {
+            snapshot = gasPriceOracle.refreshNow();
+        }
+        if (snapshot == null) {
+            throw new Web3jException("Gas oracle has no fee history yet");
+        }
+        return snapshot;
+    }
+
     @Override
-    @Cacheable(value = "latestBlock")
     @Retryable(
         value = {Exception.class},
         maxAttempts = 3,
         backoff = @Backoff(delay = 1000)
     )
     public BigInteger getLatestBlockNumber() {
+        if (headTracker.hasHead()) {
+            return headTracker.currentBlock();
+        }
         try {
-            EthBlockNumber blockNumber = web3j.ethBlockNumber().send();
+            EthBlockNumber blockNumber = call(web3j.ethBlockNumber());
             return blockNumber.getBlockNumber();
         } catch (Exception e) {
             log.error("Failed to get latest block number", e);
@@ -121,7 +185,6 @@ public class Web3jService implements IWeb3jService {
     }
 
     @Override
-    @Cacheable(value = "block", key = "#blockNumber")
     @Retryable(
         value = {Exception.class},
         maxAttempts = 3,
@@ -129,8 +192,8 @@ public class Web3jService implements IWeb3jService {
     )
     public EthBlock.Block getBlockByNumber(BigInteger blockNumber) {
         try {
-            EthBlock block = web3j.ethGetBlockByNumber(DefaultBlockParameter.valueOf(blockNumber), true).send();
-            return block.getBlock();
+            return chainDataCache.get("block:" + blockNumber, EthBlock.Block.class, EthBlock.Block::getNumber,
+                () -> call(web3j.ethGetBlockByNumber(DefaultBlockParameter.valueOf(blockNumber), true)).getBlock());
         } catch (Exception e) {
             log.error("Failed to get block by number: {}", blockNumber, e);
             throw new RuntimeException("Failed to get block by number", e);
@@ -138,7 +201,6 @@ public class Web3jService implements IWeb3jService {
     }
 
     @Override
-    @Cacheable(value = "transactionReceipt", key = "#transactionHash")
     @Retryable(
         value = {Exception.class},
         maxAttempts = 3,
@@ -146,8 +208,9 @@ public class Web3jService implements IWeb3jService {
     )
     public TransactionReceipt getTransactionReceipt(String transactionHash) {
         try {
-            EthGetTransactionReceipt receipt = web3j.ethGetTransactionReceipt(transactionHash).send();
-            return receipt.getTransactionReceipt().orElse(null);
+            return chainDataCache.get("receipt:" + transactionHash, TransactionReceipt.class,
+                TransactionReceipt::getBlockNumber,
+                () -> call(web3j.ethGetTransactionReceipt(transactionHash)).getTransactionReceipt().orElse(null));
         } catch (Exception e) {
             log.error("Failed to get transaction receipt for hash: {}", transactionHash, e);
             throw new RuntimeException("Failed to get transaction receipt", e);
@@ -155,7 +218,6 @@ public class Web3jService implements IWeb3jService {
     }
 
     @Override
-    @Cacheable(value = "transaction", key = "#transactionHash")
     @Retryable(
         value = {Exception.class},
         maxAttempts = 3,
@@ -163,9 +225,10 @@ public class Web3jService implements IWeb3jService {
     )
     public org.web3j.protocol.core.methods.response.Transaction getTransactionByHash(String transactionHash) {
         try {
-            EthTransaction ethTransaction = web3j.ethGetTransactionByHash(transactionHash).send();
-            return ethTransaction.getTransaction().orElseThrow(() ->
-                new Web3jException("Transaction not found: " + transactionHash));
+            return chainDataCache.get("tx:" + transactionHash, org.web3j.protocol.core.methods.response.Transaction.class,
+                tx -> tx.getBlockNumberRaw() == null ? null : tx.getBlockNumber(),
+                () -> call(web3j.ethGetTransactionByHash(transactionHash)).getTransaction().orElseThrow(() ->
+                    new Web3jException("Transaction not found: " + transactionHash)));
         } catch (Exception e) {
             log.error("Failed to get transaction by hash: {}", transactionHash, e);
             throw new Web3jException("Failed to get transaction by hash", e);
@@ -208,9 +271,13 @@ public class Web3jService implements IWeb3jService {
 
     @Override
     public List<org.web3j.protocol.core.methods.response.Transaction> getPendingTransactions() {
+        if (mempoolMonitor.isActive()) {
+            return mempoolMonitor.recent(config.getMempool().getMaxQueryLimit());
+        }
+        // Until the monitor has its first snapshot, fall back to the node's pending block
         try {
             List<org.web3j.protocol.core.methods.response.Transaction> pendingTransactions = new ArrayList<>();
-            EthBlock block = web3j.ethGetBlockByNumber(DefaultBlockParameterName.PENDING, true).send();
+            EthBlock block = call(web3j.ethGetBlockByNumber(DefaultBlockParameterName.PENDING, true));
             if (block.getBlock() != null && block.getBlock().getTransactions() != null) {
                 for (EthBlock.TransactionResult<?> tx : block.getBlock().getTransactions()) {
                     if (tx instanceof EthBlock.TransactionObject) {
@@ -239,16 +306,7 @@ public class Web3jService implements IWeb3jService {
     )
     public BigInteger estimateGas(String from, String to, BigDecimal amount) {
         try {
-            Transaction transaction = Transaction.createEtherTransaction(
-                from,
-                getTransactionCount(from),
-                getGasPrice(),
-                BigInteger.valueOf(21000),
-                to,
-                Convert.toWei(amount, Convert.Unit.ETHER).toBigInteger()
-            );
-            EthEstimateGas estimateGas = web3j.ethEstimateGas(transaction).send();
-            return estimateGas.getAmountUsed();
+            return gasEstimationEngine.estimate(from, to, Convert.toWei(amount, Convert.Unit.ETHER).toBigInteger());
         } catch (Exception e) {
             log.error("Failed to estimate gas", e);
             throw new Web3jException("Failed to estimate gas", e);
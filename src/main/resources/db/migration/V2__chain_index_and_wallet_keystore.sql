@@ -0,0 +1,51 @@
+-- V1 is the baseline of the schema that predates migrations (_user, wallet).
+
+-- Address transaction index
+CREATE TABLE address_transaction (
+    id                BIGINT       NOT NULL PRIMARY KEY,
+    address           VARCHAR(42)  NOT NULL,
+    block_number      BIGINT       NOT NULL,
+    transaction_index INTEGER      NOT NULL,
+    transaction_hash  VARCHAR(66)  NOT NULL,
+    direction         VARCHAR(8)   NOT NULL
+);
+CREATE SEQUENCE address_transaction_seq START WITH 1 INCREMENT BY 500;
+CREATE INDEX idx_address_transaction_cursor ON address_transaction (address, block_number, transaction_index);
+CREATE INDEX idx_address_transaction_block ON address_transaction (block_number);
+
+CREATE TABLE indexed_block (
+    number      BIGINT      NOT NULL PRIMARY KEY,
+    hash        VARCHAR(66) NOT NULL,
+    parent_hash VARCHAR(66) NOT NULL
+);
+
+CREATE TABLE indexer_checkpoint (
+    name         VARCHAR(255) NOT NULL PRIMARY KEY,
+    block_number BIGINT       NOT NULL
+);
+
+-- Event log index
+CREATE TABLE indexed_log (
+    id               BIGINT      NOT NULL PRIMARY KEY,
+    address          VARCHAR(42) NOT NULL,
+    topic0           VARCHAR(66) NOT NULL,
+    topic1           VARCHAR(66),
+    topic2           VARCHAR(66),
+    topic3           VARCHAR(66),
+    data             TEXT,
+    block_number     BIGINT      NOT NULL,
+    transaction_hash VARCHAR(66) NOT NULL,
+    log_index        INTEGER     NOT NULL
+);
+CREATE SEQUENCE indexed_log_seq START WITH 1 INCREMENT BY 500;
+CREATE INDEX idx_indexed_log_event ON indexed_log (address, topic0, block_number, log_index);
+CREATE INDEX idx_indexed_log_block ON indexed_log (block_number);
+
+-- Generated wallet keystores
+CREATE TABLE wallet_keystore (
+    address            VARCHAR(255)             NOT NULL PRIMARY KEY,
+    keystore           TEXT                     NOT NULL,
+    encrypted_password VARCHAR(255)             NOT NULL,
+    owner              VARCHAR(255)             NOT NULL,
+    created_at         TIMESTAMP(6) WITH TIME ZONE
+);
@@ -0,0 +1,182 @@
+package com.example.demo;
+
+import com.example.demo.config.Web3jConfig;
+import com.example.demo.entity.IndexedLog;
+import com.example.demo.repository.IndexedLogRepository;
+import com.example.demo.service.BlockHeadTracker;
+import com.example.demo.service.EventIndexResult;
+import com.example.demo.service.EventIndexer;
+import com.example.demo.service.Web3jBatchDispatcher;
+import io.reactivex.Flowable;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.request.EthFilter;
+import org.web3j.protocol.core.methods.response.EthBlock;
+import org.web3j.protocol.core.methods.response.EthLog;
+import org.web3j.protocol.websocket.events.Notification;
+import org.web3j.utils.Numeric;
+
+import java.lang.reflect.Proxy;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventIndexerTest {
+
+    private static final String TOKEN = "0xc02aaa39b223fe8d0a0e5c4f27ead9083c756cc2";
+    private static final String TRANSFER = "0xddf252ad1be2c89b69c2b068fc378daa952ba7f163c4a11628f55a4df523b3ef";
+
+    private final List<IndexedLog> rows = new CopyOnWriteArrayList<>();
+
+    @Test
+    public void testDefaultChunksAreBloomCheckedAcrossEmptyStretches() throws Exception {
+        // Only block 250 holds the event
+        LogNode node = new LogNode(250);
+        Web3j web3j = Web3j.build(node);
+        Web3jConfig config = new Web3jConfig();
+        config.getBatch().setEnabled(false);
+        config.getEvents().setParallelism(1);
+        Web3jBatchDispatcher dispatcher = new Web3jBatchDispatcher(web3j, config);
+        EventIndexer indexer = new EventIndexer(web3j, dispatcher, new BlockHeadTracker(null, config, null),
+            repository(), new NoTransactionManager(), config);
+        try {
+            EventIndexResult result = indexer.index(TOKEN, TRANSFER, 0, 399).get(10, TimeUnit.SECONDS);
+
+            // 0-99 and 100-199 are ruled out by their blooms, 200-299 narrows to block 250,
+            // and 300-399, cut short by the end of the range, is bloom checked as well
+            assertEquals(1, result.logs());
+            assertEquals(4, result.chunks());
+            assertEquals(3, result.skippedChunks());
+            assertEquals(List.of(List.of(250L, 250L)), node.logRanges);
+            assertEquals(1, rows.size());
+            assertEquals(250, rows.get(0).getBlockNumber());
+        } finally {
+            indexer.shutdown();
+            dispatcher.shutdown();
+        }
+    }
+
+    private IndexedLogRepository repository() {
+        return (IndexedLogRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[] {IndexedLogRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                case "deleteRange" -> {
+                    long from = (long) args[2];
+                    long to = (long) args[3];
+                    rows.removeIf(row -> row.getBlockNumber() >= from && row.getBlockNumber() <= to);
+                    yield 0;
+                }
+                case "saveAll" -> {
+                    ((Iterable<?>) args[0]).forEach(row -> rows.add((IndexedLog) row));
+                    yield args[0];
+                }
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+    }
+
+    // The repository above is a plain list, so there is nothing to commit
+    private static class NoTransactionManager implements PlatformTransactionManager {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+
+    // One matching log in a single block; its header bloom has every bit set, the others none
+    private static class LogNode implements Web3jService {
+        private final long eventBlock;
+        private final List<List<Long>> logRanges = new CopyOnWriteArrayList<>();
+
+        LogNode(long eventBlock) {
+            this.eventBlock = eventBlock;
+        }
+
+        @Override
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        public <T extends Response> T send(Request request, Class<T> responseType) {
+            switch (request.getMethod()) {
+                case "eth_getBlockByNumber" -> {
+                    long number = Numeric.decodeQuantity((String) request.getParams().get(0)).longValueExact();
+                    byte[] bloom = new byte[256];
+                    if (number == eventBlock) {
+                        Arrays.fill(bloom, (byte) 0xff);
+                    }
+                    EthBlock.Block block = new EthBlock.Block();
+                    block.setNumber(Numeric.encodeQuantity(BigInteger.valueOf(number)));
+                    block.setLogsBloom(Numeric.toHexString(bloom));
+                    EthBlock response = new EthBlock();
+                    response.setResult(block);
+                    return responseType.cast(response);
+                }
+                case "eth_getLogs" -> {
+                    EthFilter filter = (EthFilter) request.getParams().get(0);
+                    long from = Numeric.decodeQuantity(filter.getFromBlock().getValue()).longValueExact();
+                    long to = Numeric.decodeQuantity(filter.getToBlock().getValue()).longValueExact();
+                    logRanges.add(List.of(from, to));
+                    List<EthLog.LogResult> logs = new ArrayList<>();
+                    if (from <= eventBlock && eventBlock <= to) {
+                        EthLog.LogObject log = new EthLog.LogObject();
+                        log.setAddress(TOKEN);
+                        log.setTopics(List.of(TRANSFER));
+                        log.setData("0x");
+                        log.setBlockNumber(Numeric.encodeQuantity(BigInteger.valueOf(eventBlock)));
+                        log.setTransactionHash("0x" + "11".repeat(32));
+                        log.setLogIndex("0x0");
+                        logs.add(log);
+                    }
+                    EthLog response = new EthLog();
+                    response.setResult(logs);
+                    return responseType.cast(response);
+                }
+                default -> throw new UnsupportedOperationException(request.getMethod());
+            }
+        }
+
+        @Override
+        public <T extends Response> CompletableFuture<T> sendAsync(Request request, Class<T> responseType) {
+            return CompletableFuture.supplyAsync(() -> send(request, responseType));
+        }
+
+        @Override
+        public BatchResponse sendBatch(BatchRequest batchRequest) {
+            throw new UnsupportedOperationException("Batching is disabled");
+        }
+
+        @Override
+        public CompletableFuture<BatchResponse> sendBatchAsync(BatchRequest batchRequest) {
+            return CompletableFuture.failedFuture(new UnsupportedOperationException("Batching is disabled"));
+        }
+
+        @Override
+        public <T extends Notification<?>> Flowable<T> subscribe(Request request, String unsubscribeMethod,
+                                                                Class<T> responseType) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.demo;
+
+import com.example.demo.config.Web3jConfig;
+import com.example.demo.service.FinalizedChainDataStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.web3j.protocol.core.methods.response.EthBlock;
+import org.web3j.protocol.core.methods.response.Log;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FinalizedChainDataStoreTest {
+
+    private static final String BLOCK_HASH = "0x" + "ab".repeat(32);
+    private static final String TX_HASH = "0x" + "cd".repeat(32);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testBlockAndReceiptRoundTrip() throws Exception {
+        Web3jConfig config = config(64 * 1024, 4);
+        FinalizedChainDataStore store = open(config);
+
+        EthBlock.Block block = new EthBlock.Block();
+        block.setNumber("0x10");
+        block.setHash(BLOCK_HASH);
+        block.setParentHash("0x" + "00".repeat(32));
+        block.setBaseFeePerGas("0x3b9aca00");
+        block.setTransactions(List.of(new EthBlock.TransactionHash(TX_HASH)));
+
+        Log log = new Log();
+        log.setAddress("0x00000000000000000000000000000000000000aa");
+        log.setTopics(List.of("0x" + "ef".repeat(32)));
+        log.setData("0x01");
+        log.setLogIndex("0x0");
+        TransactionReceipt receipt = new TransactionReceipt();
+        receipt.setTransactionHash(TX_HASH);
+        receipt.setBlockHash(BLOCK_HASH);
+        receipt.setBlockNumber("0x10");
+        receipt.setGasUsed("0x5208");
+        receipt.setStatus("0x1");
+        receipt.setLogs(List.of(log));
+
+        store.put("block:16", block);
+        store.put("receipt:" + TX_HASH, receipt);
+        assertEquals(block, store.get("block:16", EthBlock.Block.class));
+        assertEquals(receipt, store.get("receipt:" + TX_HASH, TransactionReceipt.class));
+        store.close();
+
+        // Read back from disk after a restart
+        FinalizedChainDataStore reopened = open(config);
+        EthBlock.Block stored = reopened.get("block:16", EthBlock.Block.class);
+        assertEquals(block, stored);
+        assertEquals(TX_HASH, stored.getTransactions().get(0).get());
+        assertEquals(receipt, reopened.get("receipt:" + TX_HASH, TransactionReceipt.class));
+        assertTrue(reopened.get("receipt:" + TX_HASH, TransactionReceipt.class).isStatusOK());
+        reopened.close();
+    }
+
+    @Test
+    public void testOldestSegmentIsRecycledWhenFull() throws Exception {
+        // Room for three 100-byte values per segment, two segments
+        Web3jConfig config = config(340, 2);
+        FinalizedChainDataStore store = open(config);
+        for (int i = 0; i < 6; i++) {
+            store.put("key" + i, value(i));
+        }
+        assertEquals(6, store.size());
+
+        // The seventh value recycles the segment holding 0..2
+        store.put("key6", value(6));
+        assertEquals(4, store.size());
+        assertNull(store.get("key0", String.class));
+        assertFalse(store.contains("key2"));
+        assertEquals(value(3), store.get("key3", String.class));
+        assertEquals(value(6), store.get("key6", String.class));
+
+        // Values keep going in after the recycle, and the next one wraps again
+        store.put("key7", value(7));
+        store.put("key8", value(8));
+        store.put("key9", value(9));
+        assertNull(store.get("key5", String.class));
+        assertEquals(value(9), store.get("key9", String.class));
+        store.close();
+
+        FinalizedChainDataStore reopened = open(config);
+        assertEquals(4, reopened.size());
+        for (int i = 0; i < 6; i++) {
+            assertNull(reopened.get("key" + i, String.class));
+        }
+        for (int i = 6; i < 10; i++) {
+            assertEquals(value(i), reopened.get("key" + i, String.class));
+        }
+        // Appends continue after the last value instead of over it
+        reopened.put("key10", value(10));
+        assertEquals(value(9), reopened.get("key9", String.class));
+        assertEquals(value(10), reopened.get("key10", String.class));
+        reopened.close();
+    }
+
+    private Web3jConfig config(int segmentSizeBytes, int maxSegments) {
+        Web3jConfig config = new Web3jConfig();
+        config.getFinalizedStore().setDirectory(directory.toString());
+        config.getFinalizedStore().setSegmentSizeBytes(segmentSizeBytes);
+        config.getFinalizedStore().setMaxSegments(maxSegments);
+        return config;
+    }
+
+    private static FinalizedChainDataStore open(Web3jConfig config) throws Exception {
+        FinalizedChainDataStore store = new FinalizedChainDataStore(config);
+        store.open();
+        return store;
+    }
+
+    // 98 characters, 100 bytes as a JSON string
+    private static String value(int i) {
+        return String.format("%098d", i);
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.demo;
+
+import com.example.demo.service.InFlightRequestCollapser;
+import org.junit.jupiter.api.Test;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.response.EthGetBalance;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InFlightRequestCollapserTest {
+
+    private static final String ADDRESS = "0xca11bde05977b3631167028862be2a173976ca11";
+
+    @Test
+    public void testIdenticalCallsShareOneUpstreamCall() {
+        InFlightRequestCollapser collapser = new InFlightRequestCollapser();
+        AtomicInteger sent = new AtomicInteger();
+        CompletableFuture<EthGetBalance> upstream = new CompletableFuture<>();
+
+        CompletableFuture<EthGetBalance> first = collapser.collapse(balance("latest"), request -> {
+            sent.incrementAndGet();
+            return upstream;
+        });
+        CompletableFuture<EthGetBalance> second = collapser.collapse(balance("latest"), request -> {
+            sent.incrementAndGet();
+            return new CompletableFuture<>();
+        });
+
+        assertEquals(1, sent.get());
+        assertEquals(1, collapser.inFlightCount());
+        assertFalse(second.isDone());
+
+        EthGetBalance response = new EthGetBalance();
+        response.setResult("0x1");
+        upstream.complete(response);
+
+        assertSame(response, first.join());
+        assertSame(response, second.join());
+        assertEquals(0, collapser.inFlightCount());
+    }
+
+    @Test
+    public void testDifferentBlockTagsAreNotCollapsed() {
+        InFlightRequestCollapser collapser = new InFlightRequestCollapser();
+        AtomicInteger sent = new AtomicInteger();
+
+        collapser.collapse(balance("latest"), request -> {
+            sent.incrementAndGet();
+            return new CompletableFuture<>();
+        });
+        collapser.collapse(balance("0x10"), request -> {
+            sent.incrementAndGet();
+            return new CompletableFuture<>();
+        });
+
+        assertEquals(2, sent.get());
+        assertEquals(2, collapser.inFlightCount());
+    }
+
+    @Test
+    public void testCompletedCallIsReleasedForTheNextCaller() {
+        InFlightRequestCollapser collapser = new InFlightRequestCollapser();
+        AtomicInteger sent = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            collapser.collapse(balance("latest"), request -> {
+                sent.incrementAndGet();
+                return CompletableFuture.completedFuture(new EthGetBalance());
+            }).join();
+        }
+
+        assertEquals(3, sent.get());
+        assertEquals(0, collapser.inFlightCount());
+    }
+
+    @Test
+    public void testFailureReachesEveryCallerAndReleasesTheKey() {
+        InFlightRequestCollapser collapser = new InFlightRequestCollapser();
+        CompletableFuture<EthGetBalance> upstream = new CompletableFuture<>();
+        IOException failure = new IOException("node unavailable");
+
+        CompletableFuture<EthGetBalance> first = collapser.collapse(balance("latest"), request -> upstream);
+        CompletableFuture<EthGetBalance> second = collapser.collapse(balance("latest"), request -> upstream);
+        upstream.completeExceptionally(failure);
+
+        assertSame(failure, assertThrows(CompletionException.class, first::join).getCause());
+        assertSame(failure, assertThrows(CompletionException.class, second::join).getCause());
+        assertEquals(0, collapser.inFlightCount());
+
+        CompletableFuture<EthGetBalance> thrown = collapser.collapse(balance("latest"), request -> {
+            throw new IllegalStateException("sender rejected the call");
+        });
+        assertInstanceOf(IllegalStateException.class, assertThrows(CompletionException.class, thrown::join).getCause());
+        assertEquals(0, collapser.inFlightCount());
+    }
+
+    // A fresh request each time, so only method and params can make two calls identical
+    private static Request<?, EthGetBalance> balance(String block) {
+        return new Request<>("eth_getBalance", List.of(ADDRESS, block), null, EthGetBalance.class);
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.demo;
+
+import com.example.demo.config.WalletConfig;
+import com.example.demo.config.Web3jConfig;
+import com.example.demo.entity.StoredKeystore;
+import com.example.demo.exception.Web3jException;
+import com.example.demo.repository.StoredKeystoreRepository;
+import com.example.demo.service.CompositeSignerRegistry;
+import com.example.demo.service.ConfiguredSignerRegistry;
+import com.example.demo.service.GeneratedWallet;
+import com.example.demo.service.KeystoreStore;
+import com.example.demo.service.WalletGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KeystoreStoreTest {
+
+    private static final String OWNER = "alice@example.com";
+    private static final String OTHER = "bob@example.com";
+
+    private final Map<String, StoredKeystore> rows = new ConcurrentHashMap<>();
+
+    @Test
+    public void testOnlyTheOwnerGetsTheKey() {
+        WalletConfig config = config();
+        GeneratedWallet wallet = generate(config);
+        KeystoreStore store = new KeystoreStore(repository(), config);
+        store.save(wallet, OWNER);
+
+        assertEquals(OWNER, rows.get(wallet.address()).getOwner());
+        assertEquals(wallet.address(), store.credentialsFor(wallet.address(), OWNER).orElseThrow().getAddress());
+        assertTrue(store.credentialsFor(wallet.address(), OTHER).isEmpty());
+        assertTrue(store.credentialsFor(wallet.address(), null).isEmpty());
+
+        CompositeSignerRegistry registry = new CompositeSignerRegistry(
+            new ConfiguredSignerRegistry(new Web3jConfig()), store);
+        assertTrue(registry.credentialsFor(wallet.address(), OWNER).isPresent());
+        assertTrue(registry.credentialsFor(wallet.address(), OTHER).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> store.save(generate(config), null));
+    }
+
+    @Test
+    public void testReassigningTheOwnerInTheTableDoesNotUnlockTheKey() {
+        WalletConfig config = config();
+        GeneratedWallet wallet = generate(config);
+        new KeystoreStore(repository(), config).save(wallet, OWNER);
+
+        rows.get(wallet.address()).setOwner(OTHER);
+
+        KeystoreStore store = new KeystoreStore(repository(), config);
+        assertThrows(Web3jException.class, () -> store.credentialsFor(wallet.address(), OTHER));
+    }
+
+    private static WalletConfig config() {
+        WalletConfig config = new WalletConfig();
+        config.getKdf().setStrength(WalletConfig.KdfStrength.LIGHT);
+        config.getKeystore().setMasterKey(Base64.getEncoder().encodeToString(new byte[32]));
+        return config;
+    }
+
+    private static GeneratedWallet generate(WalletConfig config) {
+        WalletGenerator generator = new WalletGenerator(config);
+        try {
+            return generator.take();
+        } finally {
+            generator.shutdown();
+        }
+    }
+
+    // Keeps rows in the map; only the calls KeystoreStore makes are answered
+    @SuppressWarnings("unchecked")
+    private StoredKeystoreRepository repository() {
+        return (StoredKeystoreRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[] {StoredKeystoreRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                case "save" -> {
+                    StoredKeystore row = (StoredKeystore) args[0];
+                    rows.put(row.getAddress(), row);
+                    yield row;
+                }
+                case "saveAll" -> {
+                    ((Iterable<StoredKeystore>) args[0]).forEach(row -> rows.put(row.getAddress(), row));
+                    yield args[0];
+                }
+                case "findById" -> Optional.ofNullable(rows.get((String) args[0]));
+                case "existsById" -> rows.containsKey((String) args[0]);
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.demo;
+
+import com.example.demo.service.LogsBloom;
+import org.junit.jupiter.api.Test;
+import org.web3j.utils.Numeric;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LogsBloomTest {
+
+    // A WETH Transfer log
+    private static final String WETH = "0xC02aaA39b223FE8D0A0e5C4F27eAD9083C756Cc2";
+    private static final String TRANSFER = "0xddf252ad1be2c89b69c2b068fc378daa952ba7f163c4a11628f55a4df523b3ef";
+    private static final String APPROVAL = "0x8c5be1e5ebec7d5bd14f71427d1e84f3dd0314c0f7b2291e5b200ac8c7c3b925";
+
+    // Low 11 bits of the first three byte pairs of keccak256(value)
+    private static final int[] WETH_BITS = {1657, 237, 1627};
+    private static final int[] TRANSFER_BITS = {1443, 481, 1060};
+
+    @Test
+    public void testBloomOfKnownLogMatchesItsAddressAndTopic() {
+        byte[] bloom = LogsBloom.parse(Numeric.toHexString(bloomOf(WETH_BITS, TRANSFER_BITS)));
+
+        assertTrue(LogsBloom.mightContain(bloom, WETH));
+        assertTrue(LogsBloom.mightContain(bloom, WETH.toLowerCase()));
+        assertTrue(LogsBloom.mightContain(bloom, TRANSFER));
+        assertFalse(LogsBloom.mightContain(bloom, APPROVAL));
+        assertFalse(LogsBloom.mightContain(new byte[256], TRANSFER));
+        assertNull(LogsBloom.parse(null));
+    }
+
+    @Test
+    public void testEveryBitPositionIsChecked() {
+        for (int missing = 0; missing < TRANSFER_BITS.length; missing++) {
+            int[] bits = TRANSFER_BITS.clone();
+            bits[missing] = WETH_BITS[0];
+            assertFalse(LogsBloom.mightContain(bloomOf(bits), TRANSFER), "bit " + TRANSFER_BITS[missing]);
+        }
+    }
+
+    // Bit 0 is the lowest bit of the last byte, as in the header's big-endian 2048-bit bloom
+    private static byte[] bloomOf(int[]... bitSets) {
+        byte[] bloom = new byte[256];
+        for (int[] bits : bitSets) {
+            for (int bit : bits) {
+                bloom[255 - bit / 8] |= (byte) (1 << (bit % 8));
+            }
+        }
+        return bloom;
+    }
+}
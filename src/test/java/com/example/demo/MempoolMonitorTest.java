@@ -0,0 +1,199 @@
+package com.example.demo;
+
+import com.example.demo.config.Web3jConfig;
+import com.example.demo.service.MempoolMonitor;
+import com.example.demo.service.NewHeadEvent;
+import com.example.demo.service.RpcNode;
+import com.example.demo.service.Web3jBatchDispatcher;
+import com.example.demo.service.Web3jNodePool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.response.EthBlock;
+import org.web3j.protocol.core.methods.response.EthLog;
+import org.web3j.protocol.core.methods.response.Transaction;
+import org.web3j.protocol.http.HttpService;
+import org.web3j.utils.Numeric;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MempoolMonitorTest {
+
+    private static final String SENDER = "0x00000000000000000000000000000000000000aa";
+    private static final String RECIPIENT = "0x00000000000000000000000000000000000000bb";
+    private static final String FIRST = hash(1);
+    private static final String SECOND = hash(2);
+
+    private final FakeNode node = new FakeNode();
+    private Web3jNodePool pool;
+    private Web3jBatchDispatcher dispatcher;
+    private MempoolMonitor monitor;
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        monitor.shutdown();
+        dispatcher.shutdown();
+        pool.close();
+    }
+
+    @Test
+    public void testAnnouncedHashesAreFetchedOnceAndMinedOnesEvicted() throws Exception {
+        start(100);
+        node.announce(FIRST, SECOND, FIRST);
+        awaitTrue(() -> monitor.size() == 2);
+
+        // Announced again later, already held
+        node.announce(FIRST);
+        int polls = node.calls("eth_getFilterChanges");
+        awaitTrue(() -> node.calls("eth_getFilterChanges") > polls + 1);
+        assertEquals(1, node.fetches(FIRST));
+        assertEquals(1, node.fetches(SECOND));
+        assertEquals(2, monitor.size());
+        assertEquals(2, monitor.byAddress(SENDER, 10).size());
+
+        node.mine(101, FIRST);
+        monitor.onNewHead(new NewHeadEvent(BigInteger.valueOf(101), hash(101), hash(100), false));
+        awaitTrue(() -> monitor.size() == 1);
+        assertNull(monitor.get(FIRST));
+        assertNotNull(monitor.get(SECOND));
+        assertEquals(List.of(SECOND), monitor.recent(10).stream().map(Transaction::getHash).toList());
+        assertEquals(List.of(SECOND), monitor.byAddress(RECIPIENT, 10).stream().map(Transaction::getHash).toList());
+
+        // A mined transaction announced again is not brought back
+        node.announce(FIRST);
+        awaitTrue(() -> node.fetches(FIRST) == 2);
+        int pollsAfterFetch = node.calls("eth_getFilterChanges");
+        awaitTrue(() -> node.calls("eth_getFilterChanges") > pollsAfterFetch);
+        assertEquals(1, monitor.size());
+        assertNull(monitor.get(FIRST));
+    }
+
+    @Test
+    public void testAnnouncementsBeyondTheQueueAreDropped() throws Exception {
+        start(2);
+        node.announce(hash(1), hash(2), hash(3), hash(4), hash(5));
+        awaitTrue(() -> monitor.size() == 2);
+
+        assertEquals(3, monitor.droppedAnnouncements());
+        assertEquals(0, node.fetches(hash(3)));
+    }
+
+    private void start(int announceQueueSize) {
+        Web3jConfig config = new Web3jConfig();
+        config.getBatch().setEnabled(false);
+        config.getPool().setProbeIntervalMillis(60_000);
+        config.getMempool().setPollIntervalMillis(10);
+        config.getMempool().setAnnounceQueueSize(announceQueueSize);
+        pool = new Web3jNodePool(List.of(new RpcNode("http://node.example", 1, node)), config.getPool());
+        Web3j web3j = Web3j.build(node);
+        dispatcher = new Web3jBatchDispatcher(web3j, config);
+        monitor = new MempoolMonitor(web3j, dispatcher, pool, config);
+        monitor.start();
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Condition never held");
+            Thread.sleep(5);
+        }
+    }
+
+    private static String hash(long value) {
+        return Numeric.toHexStringWithPrefixZeroPadded(BigInteger.valueOf(value), 64);
+    }
+
+    // One pending-transaction filter; bodies carry a block number once their hash was mined
+    private static class FakeNode extends HttpService {
+        private final Queue<String> announced = new ConcurrentLinkedQueue<>();
+        private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+        private final Map<String, AtomicInteger> fetches = new ConcurrentHashMap<>();
+        private final Map<Long, List<String>> blocks = new ConcurrentHashMap<>();
+        private final Set<String> mined = ConcurrentHashMap.newKeySet();
+
+        FakeNode() {
+            super("http://node.example");
+        }
+
+        void announce(String... hashes) {
+            announced.addAll(List.of(hashes));
+        }
+
+        void mine(long number, String... hashes) {
+            blocks.put(number, List.of(hashes));
+            mined.addAll(List.of(hashes));
+        }
+
+        int calls(String method) {
+            return calls.getOrDefault(method, new AtomicInteger()).get();
+        }
+
+        int fetches(String hash) {
+            return fetches.getOrDefault(hash, new AtomicInteger()).get();
+        }
+
+        @Override
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        public <T extends Response> T send(Request request, Class<T> responseType) throws IOException {
+            String method = request.getMethod();
+            calls.computeIfAbsent(method, key -> new AtomicInteger()).incrementAndGet();
+            T response;
+            try {
+                response = responseType.getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new IOException(e);
+            }
+            switch (method) {
+                case "eth_blockNumber" -> ((Response) response).setResult("0x64");
+                case "eth_newPendingTransactionFilter" -> ((Response) response).setResult("0x1");
+                case "eth_getFilterChanges" -> {
+                    List<EthLog.LogResult> hashes = new ArrayList<>();
+                    String hash;
+                    while ((hash = announced.poll()) != null) {
+                        hashes.add(new EthLog.Hash(hash));
+                    }
+                    ((Response) response).setResult(hashes);
+                }
+                case "eth_getTransactionByHash" -> {
+                    String hash = (String) request.getParams().get(0);
+                    fetches.computeIfAbsent(hash, key -> new AtomicInteger()).incrementAndGet();
+                    Transaction transaction = new Transaction();
+                    transaction.setHash(hash);
+                    transaction.setFrom(SENDER);
+                    transaction.setTo(RECIPIENT);
+                    if (mined.contains(hash)) {
+                        transaction.setBlockNumber("0x65");
+                    }
+                    ((Response) response).setResult(transaction);
+                }
+                case "eth_getBlockByNumber" -> {
+                    long number = Numeric.decodeQuantity((String) request.getParams().get(0)).longValueExact();
+                    EthBlock.Block block = new EthBlock.Block();
+                    block.setNumber(Numeric.encodeQuantity(BigInteger.valueOf(number)));
+                    List<EthBlock.TransactionResult> transactions = new ArrayList<>();
+                    for (String hash : blocks.getOrDefault(number, List.of())) {
+                        transactions.add(new EthBlock.TransactionHash(hash));
+                    }
+                    block.setTransactions(transactions);
+                    ((Response) response).setResult(block);
+                }
+                default -> throw new IOException("Unexpected call " + method);
+            }
+            return response;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.demo;
+
+import com.example.demo.service.MulticallBalanceEngine;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MulticallBalanceEngineTest {
+
+    private static final String MULTICALL3 = "0xcA11bde05977b3631167028862bE2a173976CA11";
+
+    @Test
+    public void testEncodesAggregateOfGetEthBalanceCalls() {
+        String encoded = MulticallBalanceEngine.encodeAggregate(MULTICALL3, List.of(
+            "0xd8dA6BF26964aF9D7eEd9e03E53415D37aA96045",
+            "0x0000000000000000000000000000000000000001"));
+
+        String expected = "0x252dba42"
+            // offset of the calls array, its length and the offsets of both tuples
+            + "0000000000000000000000000000000000000000000000000000000000000020"
+            + "0000000000000000000000000000000000000000000000000000000000000002"
+            + "0000000000000000000000000000000000000000000000000000000000000040"
+            + "00000000000000000000000000000000000000000000000000000000000000e0"
+            // (target, callData = getEthBalance(0xd8da...6045))
+            + "000000000000000000000000ca11bde05977b3631167028862be2a173976ca11"
+            + "0000000000000000000000000000000000000000000000000000000000000040"
+            + "0000000000000000000000000000000000000000000000000000000000000024"
+            + "4d2301cc000000000000000000000000d8da6bf26964af9d7eed9e03e53415d3"
+            + "7aa9604500000000000000000000000000000000000000000000000000000000"
+            // (target, callData = getEthBalance(0x...0001))
+            + "000000000000000000000000ca11bde05977b3631167028862be2a173976ca11"
+            + "0000000000000000000000000000000000000000000000000000000000000040"
+            + "0000000000000000000000000000000000000000000000000000000000000024"
+            + "4d2301cc00000000000000000000000000000000000000000000000000000000"
+            + "0000000100000000000000000000000000000000000000000000000000000000";
+
+        assertEquals(expected, encoded);
+    }
+
+    @Test
+    public void testDecodesAggregateResult() {
+        // aggregate returned (19000000, [abi.encode(1 ether), abi.encode(0)])
+        String result = "0x"
+            + "000000000000000000000000000000000000000000000000000000000121eac0"
+            + "0000000000000000000000000000000000000000000000000000000000000040"
+            + "0000000000000000000000000000000000000000000000000000000000000002"
+            + "0000000000000000000000000000000000000000000000000000000000000040"
+            + "0000000000000000000000000000000000000000000000000000000000000080"
+            + "0000000000000000000000000000000000000000000000000000000000000020"
+            + "0000000000000000000000000000000000000000000000000de0b6b3a7640000"
+            + "0000000000000000000000000000000000000000000000000000000000000020"
+            + "0000000000000000000000000000000000000000000000000000000000000000";
+
+        assertEquals(List.of(new BigInteger("1000000000000000000"), BigInteger.ZERO),
+            MulticallBalanceEngine.decodeAggregate(result));
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.demo;
+
+import com.example.demo.config.Web3jConfig;
+import com.example.demo.service.NonceManager;
+import com.example.demo.service.Web3jBatchDispatcher;
+import io.reactivex.Flowable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.response.EthGetTransactionCount;
+import org.web3j.protocol.websocket.events.Notification;
+import org.web3j.utils.Numeric;
+
+import java.math.BigInteger;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NonceManagerTest {
+
+    private static final String SENDER = "0x00000000000000000000000000000000000000aa";
+
+    private FakeNonceService service;
+    private Web3jBatchDispatcher dispatcher;
+    private NonceManager nonceManager;
+
+    @BeforeEach
+    public void setUp() {
+        service = new FakeNonceService(7);
+        Web3j web3j = Web3j.build(service);
+        Web3jConfig config = new Web3jConfig();
+        config.getBatch().setEnabled(false);
+        dispatcher = new Web3jBatchDispatcher(web3j, config);
+        nonceManager = new NonceManager(web3j, dispatcher);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    public void testNoncesAreSeededOnceAndThenIncremented() {
+        assertEquals(BigInteger.valueOf(7), nonceManager.acquire(SENDER));
+        assertEquals(BigInteger.valueOf(8), nonceManager.acquire(SENDER));
+        assertEquals(BigInteger.valueOf(9), nonceManager.acquire("0x00000000000000000000000000000000000000AA"));
+        assertEquals(1, service.countRequests.get());
+    }
+
+    @Test
+    public void testReleasedNoncesAreHandedOutAgain() {
+        nonceManager.acquire(SENDER);
+        BigInteger eight = nonceManager.acquire(SENDER);
+        BigInteger nine = nonceManager.acquire(SENDER);
+
+        // The latest nonce is taken back, an older one becomes a gap that is filled first
+        nonceManager.release(SENDER, eight);
+        nonceManager.release(SENDER, nine);
+
+        assertEquals(eight, nonceManager.acquire(SENDER));
+        assertEquals(nine, nonceManager.acquire(SENDER));
+        assertEquals(BigInteger.TEN, nonceManager.acquire(SENDER));
+    }
+
+    @Test
+    public void testResyncMovesUpAndDropsGapsTheChainUsed() {
+        nonceManager.acquire(SENDER);
+        BigInteger eight = nonceManager.acquire(SENDER);
+        nonceManager.acquire(SENDER);
+        nonceManager.release(SENDER, eight);
+
+        // Another process sent 7 through 11 from the same account
+        service.pendingCount.set(12);
+        nonceManager.resync(SENDER);
+
+        assertEquals(BigInteger.valueOf(12), nonceManager.acquire(SENDER));
+
+        // A node behind us never moves the sender back
+        service.pendingCount.set(5);
+        nonceManager.resync(SENDER);
+
+        assertEquals(BigInteger.valueOf(13), nonceManager.acquire(SENDER));
+    }
+
+    @Test
+    public void testResetReseedsFromTheNode() {
+        nonceManager.acquire(SENDER);
+        nonceManager.acquire(SENDER);
+
+        service.pendingCount.set(3);
+        nonceManager.reset(SENDER);
+
+        assertEquals(BigInteger.valueOf(3), nonceManager.acquire(SENDER));
+        assertEquals(2, service.countRequests.get());
+    }
+
+    @Test
+    public void testNonceTooLowErrors() {
+        assertTrue(NonceManager.isNonceTooLow("nonce too low: next nonce 12, tx nonce 9"));
+        assertTrue(NonceManager.isNonceTooLow("Replacement transaction underpriced"));
+        assertTrue(NonceManager.isNonceTooLow("Nonce has already been used"));
+        assertFalse(NonceManager.isNonceTooLow("insufficient funds for gas * price + value"));
+        assertFalse(NonceManager.isNonceTooLow(null));
+    }
+
+    // Answers eth_getTransactionCount with a pending count the test can move
+    private static class FakeNonceService implements Web3jService {
+        private final AtomicLong pendingCount;
+        private final AtomicInteger countRequests = new AtomicInteger();
+
+        FakeNonceService(long pendingCount) {
+            this.pendingCount = new AtomicLong(pendingCount);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T extends Response> T send(Request request, Class<T> responseType) {
+            if (!"eth_getTransactionCount".equals(request.getMethod())) {
+                throw new UnsupportedOperationException(request.getMethod());
+            }
+            countRequests.incrementAndGet();
+            EthGetTransactionCount response = new EthGetTransactionCount();
+            response.setId(request.getId());
+            response.setResult(Numeric.encodeQuantity(BigInteger.valueOf(pendingCount.get())));
+            return (T) response;
+        }
+
+        @Override
+        public <T extends Response> CompletableFuture<T> sendAsync(Request request, Class<T> responseType) {
+            return CompletableFuture.completedFuture(send(request, responseType));
+        }
+
+        @Override
+        public BatchResponse sendBatch(BatchRequest batchRequest) {
+            throw new UnsupportedOperationException("Batching is disabled");
+        }
+
+        @Override
+        public CompletableFuture<BatchResponse> sendBatchAsync(BatchRequest batchRequest) {
+            return CompletableFuture.failedFuture(new UnsupportedOperationException("Batching is disabled"));
+        }
+
+        @Override
+        public <T extends Notification<?>> Flowable<T> subscribe(Request request, String unsubscribeMethod,
+                                                                Class<T> responseType) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.demo;
+
+import com.example.demo.service.AddressKey;
+import com.example.demo.service.OffHeapKeyIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OffHeapKeyIndexTest {
+
+    @Test
+    public void testAddressKeyRoundTrip() {
+        String address = "0xcA11bde05977b3631167028862bE2a173976CA11";
+        AddressKey key = AddressKey.of(address);
+
+        assertEquals(address.toLowerCase(), key.toHex());
+        assertEquals(key, AddressKey.of(address.toLowerCase()));
+        assertThrows(IllegalArgumentException.class, () -> AddressKey.of("0x1234"));
+    }
+
+    @Test
+    public void testMatchesHashMapThroughGrowthAndRemoval() {
+        OffHeapKeyIndex<AddressKey> index = OffHeapKeyIndex.forAddresses(16);
+        Map<AddressKey, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 200_000; i++) {
+            AddressKey key = new AddressKey(random.nextInt(20_000), random.nextInt(2), random.nextInt(2));
+            switch (random.nextInt(3)) {
+                case 0 -> assertEquals(expected.put(key, (long) i) == null, index.put(key, i));
+                case 1 -> assertEquals(expected.remove(key) != null, index.remove(key));
+                default -> assertEquals(expected.getOrDefault(key, -1L), index.get(key, -1L));
+            }
+        }
+
+        assertEquals(expected.size(), index.size());
+        index.forEach((key, value) -> assertEquals(expected.get(key), value));
+    }
+}
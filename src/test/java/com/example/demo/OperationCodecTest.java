@@ -0,0 +1,108 @@
+package com.example.demo;
+
+import com.example.demo.config.NegotiatingMessageConverter;
+import com.example.demo.config.OperationCodec;
+import com.example.demo.dto.WalletOperation;
+import com.example.demo.dto.Web3Operation;
+import com.example.demo.dto.Web3Response;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OperationCodecTest {
+
+    @Test
+    public void testWeb3OperationRoundTrip() {
+        for (String address : new String[] {
+            "0xca11bde05977b3631167028862be2a173976ca11",
+            "0xcA11bde05977b3631167028862bE2a173976CA11",
+            "0xCA11BDE05977B3631167028862BE2A173976CA11",
+            "0x88df016429689c079f3b2f6ad39fa052532c56795b733da78a91ebe6a713944b",
+            "18000000",
+            "0x1,0x2,0.5",
+            null
+        }) {
+            Web3Operation operation = Web3Operation.builder()
+                .id(UUID.randomUUID().toString())
+                .type(Web3Operation.OperationType.GET_BLOCK)
+                .address(address)
+                .build();
+
+            assertEquals(operation, OperationCodec.decode(OperationCodec.encode(operation)));
+        }
+    }
+
+    @Test
+    public void testWalletOperationRoundTrip() {
+        WalletOperation operation = WalletOperation.builder()
+            .id("not-a-uuid")
+            .type(WalletOperation.OperationType.SEND_ETH)
+            .address("0xcA11bde05977b3631167028862bE2a173976CA11")
+            .toAddress("0x0000000000000000000000000000000000000001")
+            .amount(new BigDecimal("-12.000000000000000001"))
+            .cursor("19000000:42")
+            .limit(50)
+            .requestedBy("alice@example.com")
+            .build();
+
+        byte[] encoded = OperationCodec.encode(operation);
+
+        assertEquals(operation, OperationCodec.decode(encoded));
+        assertEquals(new WalletOperation(), OperationCodec.decode(OperationCodec.encode(new WalletOperation())));
+        assertThrows(IllegalArgumentException.class, () -> OperationCodec.decode(new byte[] {1, 2, 3}));
+    }
+
+    @Test
+    public void testNewerMinorVersionIsRead() {
+        Web3Operation operation = Web3Operation.builder()
+            .id("op-1")
+            .type(Web3Operation.OperationType.GET_BALANCE)
+            .address("0xca11bde05977b3631167028862be2a173976ca11")
+            .build();
+        byte[] encoded = OperationCodec.encode(operation);
+
+        // Version 1.3 with an unknown field appended under presence bit 3
+        byte[] newer = new byte[encoded.length + 2];
+        System.arraycopy(encoded, 0, newer, 0, encoded.length);
+        newer[1] = 0x13;
+        newer[3] |= 1 << 3;
+        newer[encoded.length] = 5;
+        newer[encoded.length + 1] = 42;
+
+        assertEquals(operation, OperationCodec.decode(newer));
+
+        byte[] nextMajor = encoded.clone();
+        nextMajor[1] = 0x20;
+        assertThrows(IllegalArgumentException.class, () -> OperationCodec.decode(nextMajor));
+    }
+
+    @Test
+    public void testConverterNegotiatesByContentType() {
+        Jackson2JsonMessageConverter json = new Jackson2JsonMessageConverter();
+        NegotiatingMessageConverter binary = new NegotiatingMessageConverter(json, true);
+        NegotiatingMessageConverter legacy = new NegotiatingMessageConverter(json, false);
+        Web3Operation operation = Web3Operation.builder()
+            .id(UUID.randomUUID().toString())
+            .type(Web3Operation.OperationType.GET_BALANCE)
+            .address("0xca11bde05977b3631167028862be2a173976ca11")
+            .build();
+
+        Message encoded = binary.toMessage(operation, new MessageProperties());
+        Message plain = legacy.toMessage(operation, new MessageProperties());
+
+        assertEquals(OperationCodec.CONTENT_TYPE, encoded.getMessageProperties().getContentType());
+        assertTrue(encoded.getBody().length < plain.getBody().length);
+        assertEquals(operation, legacy.fromMessage(encoded, Web3Operation.class));
+        assertEquals(operation, binary.fromMessage(plain, Web3Operation.class));
+        assertEquals(MessageProperties.CONTENT_TYPE_JSON,
+            binary.toMessage(Web3Response.success(Map.of("ok", true)), new MessageProperties())
+                .getMessageProperties().getContentType());
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.demo;
+
+import com.example.demo.config.Web3jConfig;
+import com.example.demo.exception.Web3jException;
+import com.example.demo.service.BlockHeadTracker;
+import com.example.demo.service.FinalizedChainDataStore;
+import com.example.demo.service.NewHeadEvent;
+import com.example.demo.service.ReceiptTracker;
+import com.example.demo.service.TieredChainDataCache;
+import com.example.demo.service.TransactionBroadcastEvent;
+import com.example.demo.service.Web3jBatchDispatcher;
+import io.reactivex.Flowable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.response.EthGetTransactionReceipt;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.web3j.protocol.websocket.events.Notification;
+import org.web3j.utils.Numeric;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReceiptTrackerTest {
+
+    private static final String FIRST = hash(1);
+    private static final String SECOND = hash(2);
+
+    private final ReceiptNode node = new ReceiptNode();
+    private final Web3j web3j = Web3j.build(node);
+    private final Web3jConfig config = new Web3jConfig();
+    private Web3jBatchDispatcher dispatcher;
+    private ReceiptTracker tracker;
+
+    @AfterEach
+    public void tearDown() {
+        tracker.shutdown();
+        dispatcher.shutdown();
+    }
+
+    @Test
+    public void testTrackedHashesCompleteFromOneBatchedCheck() throws Exception {
+        start();
+        tracker.onBroadcast(new TransactionBroadcastEvent(FIRST, null, null, BigInteger.ZERO));
+        tracker.onBroadcast(new TransactionBroadcastEvent(SECOND, null, null, BigInteger.ONE));
+        // Both are already tracked, so waiting on them fetches nothing yet
+        CompletableFuture<TransactionReceipt> first = tracker.track(FIRST);
+        CompletableFuture<TransactionReceipt> second = tracker.track(SECOND.toUpperCase().replace("0X", "0x"));
+        assertEquals(2, tracker.pendingCount());
+        assertTrue(node.batchSizes.isEmpty());
+
+        node.mined.addAll(List.of(FIRST, SECOND));
+        tracker.onNewHead(new NewHeadEvent(BigInteger.valueOf(101), hash(101), hash(100), false));
+
+        assertEquals(FIRST, first.get(5, TimeUnit.SECONDS).getTransactionHash());
+        assertEquals(SECOND, second.get(5, TimeUnit.SECONDS).getTransactionHash());
+        assertEquals(List.of(2), node.batchSizes);
+        assertEquals(0, tracker.pendingCount());
+    }
+
+    @Test
+    public void testAwaitedHashExpiresAfterMaxAwait() throws Exception {
+        config.getReceipts().setMaxAwaitMillis(50);
+        start();
+        CompletableFuture<TransactionReceipt> receipt = tracker.track(FIRST);
+        // The lookup made on tracking finds nothing
+        awaitBatches(1);
+        assertEquals(List.of(1), node.batchSizes);
+        assertEquals(1, tracker.pendingCount());
+
+        tracker.onNewHead(new NewHeadEvent(BigInteger.valueOf(101), hash(101), hash(100), false));
+        awaitBatches(2);
+        assertFalse(receipt.isDone());
+
+        Thread.sleep(100);
+        tracker.onNewHead(new NewHeadEvent(BigInteger.valueOf(102), hash(102), hash(101), false));
+        ExecutionException error = assertThrows(ExecutionException.class, () -> receipt.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(Web3jException.class, error.getCause());
+        assertEquals(0, tracker.pendingCount());
+        assertEquals(2, node.batchSizes.size());
+    }
+
+    private void start() {
+        config.getBatch().setWindowMillis(20);
+        config.getFinalizedStore().setEnabled(false);
+        FixedHead head = new FixedHead();
+        dispatcher = new Web3jBatchDispatcher(web3j, config);
+        TieredChainDataCache cache = new TieredChainDataCache(new FinalizedChainDataStore(config), head, config);
+        tracker = new ReceiptTracker(web3j, dispatcher, head, cache, config);
+    }
+
+    private void awaitBatches(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (node.batchSizes.size() < count) {
+            assertTrue(System.currentTimeMillis() < deadline, "Batch never sent");
+            Thread.sleep(5);
+        }
+    }
+
+    private static String hash(long value) {
+        return Numeric.toHexStringWithPrefixZeroPadded(BigInteger.valueOf(value), 64);
+    }
+
+    private static class FixedHead extends BlockHeadTracker {
+        FixedHead() {
+            super(null, new Web3jConfig(), null);
+        }
+
+        @Override
+        public BigInteger currentBlock() {
+            return BigInteger.valueOf(101);
+        }
+
+        @Override
+        public boolean hasHead() {
+            return true;
+        }
+    }
+
+    // Answers receipt lookups; only hashes in mined have a receipt. A lone call is sent on its own
+    private static class ReceiptNode implements Web3jService {
+        private final Set<String> mined = ConcurrentHashMap.newKeySet();
+        // Requests per round trip
+        private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+
+        private EthGetTransactionReceipt respond(Request<?, ?> request) {
+            String hash = ((String) request.getParams().get(0)).toLowerCase();
+            EthGetTransactionReceipt response = new EthGetTransactionReceipt();
+            response.setId(request.getId());
+            if (mined.contains(hash)) {
+                TransactionReceipt receipt = new TransactionReceipt();
+                receipt.setTransactionHash(hash);
+                receipt.setBlockNumber("0x65");
+                receipt.setStatus("0x1");
+                response.setResult(receipt);
+            }
+            return response;
+        }
+
+        @Override
+        public BatchResponse sendBatch(BatchRequest batchRequest) {
+            List<Response<?>> responses = new ArrayList<>();
+            for (Request<?, ? extends Response<?>> request : batchRequest.getRequests()) {
+                responses.add(respond(request));
+            }
+            batchSizes.add(batchRequest.getRequests().size());
+            return new BatchResponse(batchRequest.getRequests(), responses);
+        }
+
+        @Override
+        public CompletableFuture<BatchResponse> sendBatchAsync(BatchRequest batchRequest) {
+            return CompletableFuture.supplyAsync(() -> sendBatch(batchRequest));
+        }
+
+        @Override
+        public <T extends Response> T send(Request request, Class<T> responseType) {
+            T response = responseType.cast(respond(request));
+            batchSizes.add(1);
+            return response;
+        }
+
+        @Override
+        public <T extends Response> CompletableFuture<T> sendAsync(Request request, Class<T> responseType) {
+            return CompletableFuture.supplyAsync(() -> send(request, responseType));
+        }
+
+        @Override
+        public <T extends Notification<?>> Flowable<T> subscribe(Request request, String unsubscribeMethod,
+                                                                Class<T> responseType) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package com.example.demo;
+
+import com.example.demo.config.Web3jConfig;
+import com.example.demo.entity.AddressTransaction;
+import com.example.demo.entity.IndexedBlock;
+import com.example.demo.entity.IndexerCheckpoint;
+import com.example.demo.repository.AddressTransactionRepository;
+import com.example.demo.repository.IndexedBlockRepository;
+import com.example.demo.repository.IndexerCheckpointRepository;
+import com.example.demo.service.BlockHeadTracker;
+import com.example.demo.service.NewHeadEvent;
+import com.example.demo.service.TransactionIndexer;
+import com.example.demo.service.Web3jBatchDispatcher;
+import io.reactivex.Flowable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.response.EthBlock;
+import org.web3j.protocol.websocket.events.Notification;
+import org.web3j.utils.Numeric;
+
+import java.lang.reflect.Proxy;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionIndexerTest {
+
+    private static final String SENDER = "0x00000000000000000000000000000000000000aa";
+    private static final String RECIPIENT = "0x00000000000000000000000000000000000000bb";
+
+    private final ChainNode node = new ChainNode();
+    private final Web3j web3j = Web3j.build(node);
+    private final Web3jConfig config = new Web3jConfig();
+    private final FixedHead head = new FixedHead();
+    private final List<AddressTransaction> transactions = new CopyOnWriteArrayList<>();
+    private final Map<Long, IndexedBlock> blocks = new ConcurrentHashMap<>();
+    private final Map<String, IndexerCheckpoint> checkpoints = new ConcurrentHashMap<>();
+    private Web3jBatchDispatcher dispatcher;
+    private TransactionIndexer indexer;
+
+    @AfterEach
+    public void tearDown() {
+        indexer.shutdown();
+        dispatcher.shutdown();
+    }
+
+    @Test
+    public void testBlockReplacedAtTheBackfillBoundaryIsRolledBack() throws Exception {
+        // Block 8 is the last one backfilled, and it is replaced before block 9 is followed
+        for (long number = 0; number <= 10; number++) {
+            node.put(block(number, "a", number == 9 ? "b" : "a"));
+        }
+        node.replaceAfterFirstFetch(block(8, "b", "a"));
+        head.set(10);
+        start();
+
+        awaitTrue(() -> indexer.getIndexedThrough() == 10 && node.replaced.isEmpty());
+        assertEquals(hash(8, "b"), blocks.get(8L).getHash());
+        assertEquals(List.of(hash(8, "b")), transactionHashes(8));
+        assertEquals(List.of(hash(9, "a")), transactionHashes(9));
+        assertEquals(10, checkpoints.get("address-transactions").getBlockNumber());
+    }
+
+    @Test
+    public void testReorgedTipIsRolledBackAndReindexed() throws Exception {
+        for (long number = 0; number <= 10; number++) {
+            node.put(block(number, "a", "a"));
+        }
+        head.set(10);
+        start();
+        awaitTrue(() -> indexer.getIndexedThrough() == 10);
+        // The boundary block is recorded even though it was backfilled
+        assertEquals(hash(8, "a"), blocks.get(8L).getHash());
+        assertEquals(List.of(hash(10, "a")), transactionHashes(10));
+
+        // Block 10 is replaced and block 11 builds on the replacement
+        node.put(block(10, "b", "a"));
+        node.put(block(11, "b", "b"));
+        head.set(11);
+        indexer.onNewHead(new NewHeadEvent(BigInteger.valueOf(11), hash(11, "b"), hash(10, "b"), false));
+
+        awaitTrue(() -> indexer.getIndexedThrough() == 11 && blocks.containsKey(11L));
+        assertEquals(hash(10, "b"), blocks.get(10L).getHash());
+        assertEquals(List.of(hash(10, "b")), transactionHashes(10));
+        assertEquals(List.of(hash(11, "b")), transactionHashes(11));
+    }
+
+    private void start() {
+        config.getBatch().setEnabled(false);
+        config.getIndexer().setEnabled(true);
+        config.getIndexer().setConfirmations(2);
+        config.getIndexer().setChunkSize(3);
+        config.getIndexer().setParallelism(2);
+        dispatcher = new Web3jBatchDispatcher(web3j, config);
+        indexer = new TransactionIndexer(web3j, dispatcher, head, transactionRepository(), blockRepository(),
+            checkpointRepository(), new NoTransactionManager(), config);
+        indexer.start();
+    }
+
+    // The hash of the one transaction indexed for each row in the block, from the sender's side
+    private List<String> transactionHashes(long blockNumber) {
+        return transactions.stream()
+            .filter(row -> row.getBlockNumber() == blockNumber && row.getAddress().equals(SENDER))
+            .map(AddressTransaction::getTransactionHash)
+            .toList();
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Condition never held");
+            Thread.sleep(5);
+        }
+    }
+
+    // Blocks and their single transaction share a hash built from the number and the fork
+    private static String hash(long number, String fork) {
+        return Numeric.toHexStringWithPrefixZeroPadded(BigInteger.valueOf(number), 62) + fork.repeat(2);
+    }
+
+    private static EthBlock.Block block(long number, String fork, String parentFork) {
+        EthBlock.TransactionObject tx = new EthBlock.TransactionObject();
+        tx.setHash(hash(number, fork));
+        tx.setFrom(SENDER);
+        tx.setTo(RECIPIENT);
+        tx.setTransactionIndex("0x0");
+        EthBlock.Block block = new EthBlock.Block();
+        block.setNumber(Numeric.encodeQuantity(BigInteger.valueOf(number)));
+        block.setHash(hash(number, fork));
+        block.setParentHash(number == 0 ? hash(0, "0") : hash(number - 1, parentFork));
+        block.setTransactions(List.of(tx));
+        return block;
+    }
+
+    @SuppressWarnings("unchecked")
+    private AddressTransactionRepository transactionRepository() {
+        return (AddressTransactionRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[] {AddressTransactionRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                case "saveAll" -> {
+                    ((Iterable<AddressTransaction>) args[0]).forEach(transactions::add);
+                    yield args[0];
+                }
+                case "deleteBlockRange" -> {
+                    long from = (long) args[0];
+                    long to = (long) args[1];
+                    transactions.removeIf(row -> row.getBlockNumber() >= from && row.getBlockNumber() <= to);
+                    yield 0;
+                }
+                case "deleteFromBlock" -> {
+                    long from = (long) args[0];
+                    transactions.removeIf(row -> row.getBlockNumber() >= from);
+                    yield 0;
+                }
+                case "streamLastBlockByAddress" -> Stream.empty();
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+    }
+
+    private IndexedBlockRepository blockRepository() {
+        return (IndexedBlockRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[] {IndexedBlockRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                case "save" -> {
+                    IndexedBlock block = (IndexedBlock) args[0];
+                    blocks.put(block.getNumber(), block);
+                    yield block;
+                }
+                case "findById" -> Optional.ofNullable(blocks.get((Long) args[0]));
+                case "deleteFromBlock" -> {
+                    long from = (long) args[0];
+                    blocks.keySet().removeIf(number -> number >= from);
+                    yield 0;
+                }
+                case "deleteBelow" -> {
+                    long below = (long) args[0];
+                    blocks.keySet().removeIf(number -> number < below);
+                    yield 0;
+                }
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+    }
+
+    private IndexerCheckpointRepository checkpointRepository() {
+        return (IndexerCheckpointRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[] {IndexerCheckpointRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                case "save" -> {
+                    IndexerCheckpoint checkpoint = (IndexerCheckpoint) args[0];
+                    checkpoints.put(checkpoint.getName(), checkpoint);
+                    yield checkpoint;
+                }
+                case "findById" -> Optional.ofNullable(checkpoints.get((String) args[0]));
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+    }
+
+    // The repositories above are plain maps, so there is nothing to commit
+    private static class NoTransactionManager implements PlatformTransactionManager {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+
+    private static class FixedHead extends BlockHeadTracker {
+        private final AtomicLong head = new AtomicLong();
+
+        FixedHead() {
+            super(null, new Web3jConfig(), null);
+        }
+
+        void set(long number) {
+            head.set(number);
+        }
+
+        @Override
+        public BigInteger currentBlock() {
+            return BigInteger.valueOf(head.get());
+        }
+
+        @Override
+        public boolean hasHead() {
+            return head.get() > 0;
+        }
+    }
+
+    // Serves blocks by number; a block in replaced is swapped in once the current one has been read
+    private static class ChainNode implements Web3jService {
+        private final Map<Long, EthBlock.Block> chain = new ConcurrentHashMap<>();
+        private final Map<Long, EthBlock.Block> replaced = new ConcurrentHashMap<>();
+        private final Set<Long> fetched = ConcurrentHashMap.newKeySet();
+
+        void put(EthBlock.Block block) {
+            chain.put(block.getNumber().longValueExact(), block);
+        }
+
+        void replaceAfterFirstFetch(EthBlock.Block block) {
+            replaced.put(block.getNumber().longValueExact(), block);
+        }
+
+        @Override
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        public <T extends Response> T send(Request request, Class<T> responseType) {
+            if (!"eth_getBlockByNumber".equals(request.getMethod())) {
+                throw new UnsupportedOperationException(request.getMethod());
+            }
+            long number = Numeric.decodeQuantity((String) request.getParams().get(0)).longValueExact();
+            EthBlock response = new EthBlock();
+            response.setResult(chain.get(number));
+            if (fetched.add(number) && replaced.containsKey(number)) {
+                chain.put(number, replaced.remove(number));
+            }
+            return responseType.cast(response);
+        }
+
+        @Override
+        public <T extends Response> CompletableFuture<T> sendAsync(Request request, Class<T> responseType) {
+            return CompletableFuture.supplyAsync(() -> send(request, responseType));
+        }
+
+        @Override
+        public BatchResponse sendBatch(BatchRequest batchRequest) {
+            throw new UnsupportedOperationException("Batching is disabled");
+        }
+
+        @Override
+        public CompletableFuture<BatchResponse> sendBatchAsync(BatchRequest batchRequest) {
+            return CompletableFuture.failedFuture(new UnsupportedOperationException("Batching is disabled"));
+        }
+
+        @Override
+        public <T extends Notification<?>> Flowable<T> subscribe(Request request, String unsubscribeMethod,
+                                                                Class<T> responseType) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.demo;
+
+import com.example.demo.config.Web3jConfig;
+import com.example.demo.service.ConfiguredSignerRegistry;
+import com.example.demo.service.SendResult;
+import com.example.demo.service.TransactionSendPipeline;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.access.AccessDeniedException;
+import org.web3j.crypto.Credentials;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionSendPipelineTest {
+
+    private static final String HOT_WALLET_KEY = "0x4c0883a69102937d6231471b5dbb6204fe5129617082792ae468d01a3f362318";
+    private static final String HOT_WALLET = Credentials.create(HOT_WALLET_KEY).getAddress();
+    private static final String RECIPIENT = "0x0000000000000000000000000000000000000001";
+    private static final String OPERATOR = "treasury@example.com";
+
+    @Test
+    public void testHotWalletKeysOnlyGoToOperators() {
+        ConfiguredSignerRegistry registry = new ConfiguredSignerRegistry(config());
+
+        assertEquals(HOT_WALLET, registry.credentialsFor(HOT_WALLET, OPERATOR).orElseThrow().getAddress());
+        assertTrue(registry.credentialsFor(HOT_WALLET, "mallory@example.com").isEmpty());
+        assertTrue(registry.credentialsFor(HOT_WALLET, null).isEmpty());
+        assertTrue(registry.credentialsFor(RECIPIENT, OPERATOR).isEmpty());
+    }
+
+    @Test
+    public void testSendFromForeignWalletIsRefused() {
+        Web3jConfig config = config();
+        // Nothing past the signer check is reached, so the RPC side is left out
+        TransactionSendPipeline pipeline = new TransactionSendPipeline(null, null, null, null, null, null,
+            new ConfiguredSignerRegistry(config), null, config, new SimpleMeterRegistry());
+        try {
+            CompletableFuture<SendResult> send = pipeline.submit("mallory@example.com", HOT_WALLET, RECIPIENT,
+                BigInteger.ONE);
+
+            ExecutionException error = assertThrows(ExecutionException.class, () -> send.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(AccessDeniedException.class, error.getCause());
+
+            CompletableFuture<SendResult> anonymous = pipeline.submit(null, HOT_WALLET, RECIPIENT, BigInteger.ONE);
+            error = assertThrows(ExecutionException.class, () -> anonymous.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(AccessDeniedException.class, error.getCause());
+        } finally {
+            pipeline.shutdown();
+        }
+    }
+
+    private static Web3jConfig config() {
+        Web3jConfig config = new Web3jConfig();
+        config.getSend().setPrivateKeys(List.of(HOT_WALLET_KEY));
+        config.getSend().setOperators(List.of(OPERATOR));
+        return config;
+    }
+}
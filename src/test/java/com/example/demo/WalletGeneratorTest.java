@@ -0,0 +1,42 @@
+package com.example.demo;
+
+import com.example.demo.config.WalletConfig;
+import com.example.demo.service.GeneratedWallet;
+import com.example.demo.service.WalletGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WalletGeneratorTest {
+
+    @Test
+    public void testSecondBulkRequestIsRejectedWhileOneIsRunning() throws Exception {
+        WalletConfig config = new WalletConfig();
+        config.getKdf().setStrength(WalletConfig.KdfStrength.CUSTOM);
+        config.getKdf().setN(1 << 14);
+        // The pool is never started, so every wallet is derived on the bulk threads
+        WalletGenerator generator = new WalletGenerator(config);
+        try {
+            CompletableFuture<List<GeneratedWallet>> running = generator.create(20);
+            CompletableFuture<List<GeneratedWallet>> rejected = generator.create(1);
+
+            ExecutionException error = assertThrows(ExecutionException.class, () -> rejected.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(RejectedExecutionException.class, error.getCause());
+            assertFalse(running.isDone());
+
+            List<GeneratedWallet> wallets = running.get(60, TimeUnit.SECONDS);
+            assertEquals(20, wallets.stream().map(GeneratedWallet::address).distinct().count());
+
+            // The slot is free again once the first request finished
+            assertEquals(1, generator.create(1).get(60, TimeUnit.SECONDS).size());
+        } finally {
+            generator.shutdown();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.demo;
+
+import com.example.demo.config.Web3jConfig;
+import com.example.demo.exception.Web3jException;
+import com.example.demo.service.Web3jBatchDispatcher;
+import io.reactivex.Flowable;
+import org.junit.jupiter.api.Test;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.response.EthGetBalance;
+import org.web3j.protocol.websocket.events.Notification;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class Web3jBatchDispatcherTest {
+
+    private static final String FIRST = "0x0000000000000000000000000000000000000001";
+    private static final String SECOND = "0x0000000000000000000000000000000000000002";
+    private static final String FAILING = "0x0000000000000000000000000000000000000003";
+    private static final String MISSING = "0x0000000000000000000000000000000000000004";
+
+    @Test
+    public void testResponsesAreMatchedToCallersById() throws Exception {
+        FakeBatchService service = new FakeBatchService(Map.of(FIRST, "0x1", SECOND, "0x2"));
+        Web3j web3j = Web3j.build(service);
+        Web3jConfig config = new Web3jConfig();
+        config.getBatch().setWindowMillis(50);
+        Web3jBatchDispatcher dispatcher = new Web3jBatchDispatcher(web3j, config);
+        try {
+            CompletableFuture<EthGetBalance> first = dispatcher.submit(web3j.ethGetBalance(FIRST, DefaultBlockParameterName.LATEST));
+            CompletableFuture<EthGetBalance> second = dispatcher.submit(web3j.ethGetBalance(SECOND, DefaultBlockParameterName.LATEST));
+            CompletableFuture<EthGetBalance> failing = dispatcher.submit(web3j.ethGetBalance(FAILING, DefaultBlockParameterName.LATEST));
+            CompletableFuture<EthGetBalance> missing = dispatcher.submit(web3j.ethGetBalance(MISSING, DefaultBlockParameterName.LATEST));
+
+            assertEquals(BigInteger.ONE, first.get(5, TimeUnit.SECONDS).getBalance());
+            assertEquals(BigInteger.TWO, second.get(5, TimeUnit.SECONDS).getBalance());
+
+            ExecutionException error = assertThrows(ExecutionException.class, () -> failing.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(Web3jException.class, error.getCause());
+            assertEquals("execution reverted", error.getCause().getMessage());
+
+            error = assertThrows(ExecutionException.class, () -> missing.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(Web3jException.class, error.getCause());
+
+            assertEquals(List.of(4), service.batchSizes);
+        } finally {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    public void testTransportFailureFailsEveryCallOfTheBatch() {
+        FakeBatchService service = new FakeBatchService(Map.of());
+        service.failure = new IOException("connection reset");
+        Web3j web3j = Web3j.build(service);
+        Web3jConfig config = new Web3jConfig();
+        config.getBatch().setWindowMillis(50);
+        Web3jBatchDispatcher dispatcher = new Web3jBatchDispatcher(web3j, config);
+        try {
+            List<CompletableFuture<EthGetBalance>> calls = List.of(
+                dispatcher.submit(web3j.ethGetBalance(FIRST, DefaultBlockParameterName.LATEST)),
+                dispatcher.submit(web3j.ethGetBalance(SECOND, DefaultBlockParameterName.LATEST)));
+
+            for (CompletableFuture<EthGetBalance> call : calls) {
+                ExecutionException error = assertThrows(ExecutionException.class, () -> call.get(5, TimeUnit.SECONDS));
+                assertSame(service.failure, error.getCause());
+            }
+        } finally {
+            dispatcher.shutdown();
+        }
+    }
+
+    // Answers batches in reverse order, with an error for FAILING and no response at all for MISSING
+    private static class FakeBatchService implements Web3jService {
+        private final Map<String, String> balances;
+        private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        private volatile IOException failure;
+
+        FakeBatchService(Map<String, String> balances) {
+            this.balances = balances;
+        }
+
+        @Override
+        public BatchResponse sendBatch(BatchRequest batchRequest) throws IOException {
+            batchSizes.add(batchRequest.getRequests().size());
+            if (failure != null) {
+                throw failure;
+            }
+            List<Response<?>> responses = new ArrayList<>();
+            for (Request<?, ? extends Response<?>> request : batchRequest.getRequests()) {
+                String address = (String) request.getParams().get(0);
+                if (MISSING.equals(address)) {
+                    continue;
+                }
+                EthGetBalance response = new EthGetBalance();
+                response.setId(request.getId());
+                if (FAILING.equals(address)) {
+                    response.setError(new Response.Error(3, "execution reverted"));
+                } else {
+                    response.setResult(balances.get(address));
+                }
+                responses.add(0, response);
+            }
+            return new BatchResponse(batchRequest.getRequests(), responses);
+        }
+
+        @Override
+        public CompletableFuture<BatchResponse> sendBatchAsync(BatchRequest batchRequest) {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return sendBatch(batchRequest);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+        }
+
+        @Override
+        public <T extends Response> T send(Request request, Class<T> responseType) {
+            throw new UnsupportedOperationException("Only batches are expected");
+        }
+
+        @Override
+        public <T extends Response> CompletableFuture<T> sendAsync(Request request, Class<T> responseType) {
+            return CompletableFuture.failedFuture(new UnsupportedOperationException("Only batches are expected"));
+        }
+
+        @Override
+        public <T extends Notification<?>> Flowable<T> subscribe(Request request, String unsubscribeMethod,
+                                                                Class<T> responseType) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.demo;
+
+import com.example.demo.config.Web3jConfig;
+import com.example.demo.service.RpcNode;
+import com.example.demo.service.Web3jNodePool;
+import org.junit.jupiter.api.Test;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.request.EthFilter;
+import org.web3j.protocol.http.HttpService;
+import org.web3j.utils.Numeric;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.SocketTimeoutException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class Web3jNodePoolTest {
+
+    private static final String ADDRESS = "0xcA11bde05977b3631167028862bE2a173976CA11";
+
+    @Test
+    public void testReadsGoToNodesThatHaveTheBlock() throws Exception {
+        // The lagging node is faster and heavier, so it wins every read that does not need the tip
+        FakeNode lagging = new FakeNode("http://lagging.example", 90, 0);
+        FakeNode atTip = new FakeNode("http://tip.example", 100, 5);
+        Web3jConfig.Pool config = new Web3jConfig.Pool();
+        config.setProbeIntervalMillis(60_000);
+        Web3jNodePool pool = new Web3jNodePool(
+            List.of(new RpcNode("http://lagging.example", 100, lagging), new RpcNode("http://tip.example", 1, atTip)),
+            config);
+        try {
+            awaitProbes(pool);
+            Web3j web3j = Web3j.build(pool);
+
+            web3j.ethGetBalance(ADDRESS, DefaultBlockParameterName.LATEST).send();
+            web3j.ethGetTransactionCount(ADDRESS, DefaultBlockParameterName.PENDING).send();
+            web3j.ethGetCode(ADDRESS, DefaultBlockParameterName.LATEST).send();
+            assertEquals(3, atTip.reads.get());
+            assertEquals(0, lagging.reads.get());
+
+            web3j.ethGetBalance(ADDRESS, DefaultBlockParameter.valueOf(BigInteger.valueOf(80))).send();
+            assertEquals(3, atTip.reads.get());
+            assertEquals(1, lagging.reads.get());
+
+            // A block the lagging node has not reached yet
+            web3j.ethGetBalance(ADDRESS, DefaultBlockParameter.valueOf(BigInteger.valueOf(95))).send();
+            assertEquals(4, atTip.reads.get());
+            assertEquals(1, lagging.reads.get());
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testLogRangeTimeoutsDoNotEjectNode() throws Exception {
+        FakeNode node = new FakeNode("http://only.example", 100, 0);
+        node.timeoutMethod = "eth_getLogs";
+        Web3jConfig.Pool config = new Web3jConfig.Pool();
+        config.setProbeIntervalMillis(60_000);
+        Web3jNodePool pool = new Web3jNodePool(List.of(new RpcNode("http://only.example", 1, node)), config);
+        try {
+            awaitProbes(pool);
+            Web3j web3j = Web3j.build(pool);
+            EthFilter filter = new EthFilter(DefaultBlockParameter.valueOf(BigInteger.ONE),
+                DefaultBlockParameter.valueOf(BigInteger.valueOf(100)), ADDRESS);
+
+            for (int i = 0; i < config.getFailureThreshold() * 2; i++) {
+                assertThrows(SocketTimeoutException.class, () -> web3j.ethGetLogs(filter).send());
+            }
+
+            RpcNode rpcNode = pool.getNodes().get(0);
+            assertTrue(rpcNode.isAvailable());
+            assertEquals(0, rpcNode.getConsecutiveFailures().get());
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testEjectedNodeWaitsForASuccessfulProbe() throws Exception {
+        FakeNode node = new FakeNode("http://only.example", 100, 0);
+        Web3jConfig.Pool config = new Web3jConfig.Pool();
+        config.setProbeIntervalMillis(20);
+        config.setEjectMillis(100);
+        Web3jNodePool pool = new Web3jNodePool(List.of(new RpcNode("http://only.example", 1, node)), config);
+        try {
+            awaitProbes(pool);
+            RpcNode rpcNode = pool.getNodes().get(0);
+            Web3j web3j = Web3j.build(pool);
+
+            node.down = true;
+            for (int i = 0; i < config.getFailureThreshold(); i++) {
+                assertThrows(IOException.class, () -> web3j.ethGetBalance(ADDRESS, DefaultBlockParameterName.LATEST).send());
+            }
+            assertFalse(rpcNode.isAvailable());
+
+            // Well past eject-millis, but every probe in between failed
+            long until = System.currentTimeMillis() + 4 * config.getEjectMillis();
+            while (System.currentTimeMillis() < until) {
+                assertFalse(rpcNode.isAvailable());
+                Thread.sleep(5);
+            }
+            assertTrue(rpcNode.getEjectedUntil() > System.currentTimeMillis() - config.getProbeIntervalMillis() * 2);
+
+            node.down = false;
+            long deadline = System.currentTimeMillis() + 5000;
+            while (!rpcNode.isAvailable()) {
+                assertTrue(System.currentTimeMillis() < deadline, "Node was never readmitted");
+                Thread.sleep(5);
+            }
+            assertEquals(0, rpcNode.getConsecutiveFailures().get());
+        } finally {
+            pool.close();
+        }
+    }
+
+    private static void awaitProbes(Web3jNodePool pool) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (pool.getNodes().stream().anyMatch(node -> node.getHead().signum() == 0)) {
+            assertTrue(System.currentTimeMillis() < deadline, "Nodes were never probed");
+            Thread.sleep(10);
+        }
+        assertEquals(BigInteger.valueOf(100), pool.getTip());
+    }
+
+    // Answers eth_blockNumber with a fixed head and every other call with zero, or fails everything while down
+    private static class FakeNode extends HttpService {
+        private final long head;
+        private final long delayMillis;
+        private final AtomicInteger reads = new AtomicInteger();
+        private volatile String timeoutMethod;
+        private volatile boolean down;
+
+        FakeNode(String url, long head, long delayMillis) {
+            super(url);
+            this.head = head;
+            this.delayMillis = delayMillis;
+        }
+
+        @Override
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        public <T extends Response> T send(Request request, Class<T> responseType) throws IOException {
+            if (request.getMethod().equals(timeoutMethod)) {
+                throw new SocketTimeoutException("timeout");
+            }
+            if (down) {
+                throw new IOException("connection refused");
+            }
+            try {
+                Thread.sleep(delayMillis);
+                T response = responseType.getDeclaredConstructor().newInstance();
+                if ("eth_blockNumber".equals(request.getMethod())) {
+                    ((Response) response).setResult(Numeric.encodeQuantity(BigInteger.valueOf(head)));
+                } else {
+                    reads.incrementAndGet();
+                    ((Response) response).setResult("0x0");
+                }
+                return response;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            } catch (ReflectiveOperationException e) {
+                throw new IOException(e);
+            }
+        }
+    }
+}
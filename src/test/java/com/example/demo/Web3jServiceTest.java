@@ -0,0 +1,162 @@
+package com.example.demo;
+
+import com.example.demo.config.Web3jConfig;
+import com.example.demo.service.AddressKey;
+import com.example.demo.service.BlockHeadTracker;
+import com.example.demo.service.BlockScopedKey;
+import com.example.demo.service.InFlightRequestCollapser;
+import com.example.demo.service.Web3jBatchDispatcher;
+import com.example.demo.service.Web3jService;
+import io.reactivex.Flowable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.websocket.events.Notification;
+import org.web3j.utils.Convert;
+import org.web3j.utils.Numeric;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class Web3jServiceTest {
+
+    private static final String ADDRESS = "0xcA11bde05977b3631167028862bE2a173976CA11";
+
+    private final BalanceNode node = new BalanceNode();
+    private final Web3j web3j = Web3j.build(node);
+    private final Web3jConfig config = new Web3jConfig();
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager("ethBalance", "transactionCount");
+    private Web3jBatchDispatcher dispatcher;
+
+    @AfterEach
+    public void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    public void testBalanceIsReadAtTheBlockItIsCachedUnder() {
+        // The head moves to 101 right after the service reads it, the node is already there too
+        MovingHead head = new MovingHead(100);
+        node.latest = 101;
+        Web3jService service = service(head);
+
+        assertEquals(wei(100), service.getEthBalance(ADDRESS));
+        assertEquals(List.of("0x64"), node.blocks);
+        assertEquals(wei(100), cacheManager.getCache("ethBalance")
+            .get(new BlockScopedKey(AddressKey.of(ADDRESS), 100), BigDecimal.class));
+        assertNull(cacheManager.getCache("ethBalance").get(new BlockScopedKey(AddressKey.of(ADDRESS), 101)));
+
+        // The next call sees 101 and reads exactly that block
+        assertEquals(wei(101), service.getEthBalance(ADDRESS));
+        assertEquals(List.of("0x64", "0x65"), node.blocks);
+    }
+
+    @Test
+    public void testCachedBalanceIsServedForTheSameBlock() {
+        MovingHead head = new MovingHead(100);
+        head.step = 0;
+        Web3jService service = service(head);
+
+        service.getEthBalance(ADDRESS);
+        service.getEthBalance(ADDRESS.toLowerCase());
+
+        assertEquals(1, node.blocks.size());
+    }
+
+    @Test
+    public void testReadsLatestUncachedBeforeTheFirstHead() {
+        MovingHead head = new MovingHead(0);
+        head.step = 0;
+        node.latest = 7;
+        Web3jService service = service(head);
+
+        assertEquals(wei(7), service.getEthBalance(ADDRESS));
+        assertEquals(BigInteger.valueOf(7), service.getTransactionCount(ADDRESS));
+        assertEquals(List.of("latest", "latest"), node.blocks);
+    }
+
+    private Web3jService service(BlockHeadTracker head) {
+        config.getBatch().setEnabled(false);
+        dispatcher = new Web3jBatchDispatcher(web3j, config);
+        return new Web3jService(web3j, config, dispatcher, new InFlightRequestCollapser(), head,
+            null, null, null, null, null, cacheManager);
+    }
+
+    private static BigDecimal wei(long value) {
+        return Convert.fromWei(String.valueOf(value), Convert.Unit.ETHER);
+    }
+
+    // Moves forward by step every time the head is read
+    private static class MovingHead extends BlockHeadTracker {
+        private final AtomicLong head;
+        private long step = 1;
+
+        MovingHead(long head) {
+            super(null, new Web3jConfig(), null);
+            this.head = new AtomicLong(head);
+        }
+
+        @Override
+        public BigInteger currentBlock() {
+            return BigInteger.valueOf(head.getAndAdd(step));
+        }
+    }
+
+    // Every account holds as many wei as the block number read, and has sent as many transactions
+    private static class BalanceNode implements org.web3j.protocol.Web3jService {
+        private final List<String> blocks = Collections.synchronizedList(new ArrayList<>());
+        private volatile long latest;
+
+        @Override
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        public <T extends Response> T send(Request request, Class<T> responseType) {
+            String block = (String) request.getParams().get(1);
+            blocks.add(block);
+            long number = "latest".equals(block) ? latest : Numeric.decodeQuantity(block).longValueExact();
+            try {
+                T response = responseType.getDeclaredConstructor().newInstance();
+                ((Response) response).setResult(Numeric.encodeQuantity(BigInteger.valueOf(number)));
+                return response;
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public <T extends Response> CompletableFuture<T> sendAsync(Request request, Class<T> responseType) {
+            return CompletableFuture.completedFuture(send(request, responseType));
+        }
+
+        @Override
+        public BatchResponse sendBatch(BatchRequest batchRequest) {
+            throw new UnsupportedOperationException("Batching is disabled");
+        }
+
+        @Override
+        public CompletableFuture<BatchResponse> sendBatchAsync(BatchRequest batchRequest) {
+            return CompletableFuture.failedFuture(new UnsupportedOperationException("Batching is disabled"));
+        }
+
+        @Override
+        public <T extends Notification<?>> Flowable<T> subscribe(Request request, String unsubscribeMethod,
+                                                                Class<T> responseType) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}